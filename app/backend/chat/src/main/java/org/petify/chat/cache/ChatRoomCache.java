@@ -0,0 +1,58 @@
+package org.petify.chat.cache;
+
+import org.petify.chat.exception.ChatNotFoundException;
+import org.petify.chat.model.ChatRoom;
+import org.petify.chat.repository.ChatRoomRepository;
+import org.petify.chat.util.TransactionCallbacks;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.UnaryOperator;
+
+/**
+ * Room participants and visibility for the STOMP and REST paths, so an active conversation is authorized and
+ * routed without reading its room. {@code ChatService} writes changes through once its transaction commits.
+ * Participants never change, the TTL bounds how long another replica's visibility changes stay unseen.
+ */
+@Component
+public class ChatRoomCache {
+
+    private final ChatRoomRepository roomRepo;
+    private final Cache<Long, ChatRoomSnapshot> rooms;
+
+    public ChatRoomCache(ChatRoomRepository roomRepo,
+                         @Value("${petify.chat.room-cache.max-size:50000}") long maxSize,
+                         @Value("${petify.chat.room-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.roomRepo = roomRepo;
+        this.rooms = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public ChatRoomSnapshot get(Long roomId) {
+        ChatRoomSnapshot room = rooms.get(roomId, id -> roomRepo.findById(id).map(ChatRoomSnapshot::of).orElse(null));
+        if (room == null) {
+            throw new ChatNotFoundException("Chat room with ID " + roomId + " not found");
+        }
+        return room;
+    }
+
+    public void put(ChatRoom room) {
+        ChatRoomSnapshot snapshot = ChatRoomSnapshot.of(room);
+        TransactionCallbacks.afterCommit(() -> rooms.put(snapshot.id(), snapshot));
+    }
+
+    // only touches rooms that are cached, a miss loads the committed state anyway
+    public void update(Long roomId, UnaryOperator<ChatRoomSnapshot> change) {
+        TransactionCallbacks.afterCommit(() -> rooms.asMap().computeIfPresent(roomId, (id, room) -> change.apply(room)));
+    }
+
+    public void evict(Long roomId) {
+        TransactionCallbacks.afterCommit(() -> rooms.invalidate(roomId));
+    }
+}
@@ -0,0 +1,49 @@
+package org.petify.chat.cache;
+
+import org.petify.chat.model.ChatRoom;
+
+import java.time.LocalDateTime;
+
+/**
+ * The parts of a {@link ChatRoom} that authorization and routing need. Unread counters and the last message
+ * timestamp change with every message and are left out.
+ */
+public record ChatRoomSnapshot(
+        Long id,
+        Long petId,
+        String userName,
+        String shelterName,
+        boolean userVisible,
+        boolean shelterVisible,
+        LocalDateTime userHiddenAt,
+        LocalDateTime shelterHiddenAt,
+        LocalDateTime userLastReadAt,
+        LocalDateTime shelterLastReadAt
+) {
+
+    public static ChatRoomSnapshot of(ChatRoom room) {
+        return new ChatRoomSnapshot(room.getId(), room.getPetId(), room.getUserName(), room.getShelterName(),
+                room.isUserVisible(), room.isShelterVisible(), room.getUserHiddenAt(), room.getShelterHiddenAt(),
+                room.getUserLastReadAt(), room.getShelterLastReadAt());
+    }
+
+    public boolean isParticipant(String login) {
+        return login.equals(userName) || login.equals(shelterName);
+    }
+
+    public LocalDateTime hiddenAtFor(String login) {
+        return login.equals(userName) ? userHiddenAt : shelterHiddenAt;
+    }
+
+    public ChatRoomSnapshot readBy(String login, LocalDateTime readAt) {
+        if (login.equals(userName)) {
+            return new ChatRoomSnapshot(id, petId, userName, shelterName, userVisible, shelterVisible,
+                    userHiddenAt, shelterHiddenAt, readAt, shelterLastReadAt);
+        }
+        if (login.equals(shelterName)) {
+            return new ChatRoomSnapshot(id, petId, userName, shelterName, userVisible, shelterVisible,
+                    userHiddenAt, shelterHiddenAt, userLastReadAt, readAt);
+        }
+        return this;
+    }
+}
@@ -0,0 +1,27 @@
+package org.petify.chat.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Selects how STOMP messages reach users. {@code simple} keeps everything in one JVM, {@code relay} hands
+ * destinations to an external STOMP broker and {@code fanout} publishes user messages to every chat replica
+ * through RabbitMQ. The relay needs a broker that accepts slash-separated destinations such as
+ * {@code /queue/chat/42} (ActiveMQ, Artemis), RabbitMQ's STOMP plugin rejects them, so use fanout there.
+ */
+@ConfigurationProperties(prefix = "petify.chat.broker")
+public record ChatBrokerProperties(@DefaultValue("simple") Mode mode, @DefaultValue Relay relay) {
+
+    public enum Mode {
+        SIMPLE,
+        RELAY,
+        FANOUT
+    }
+
+    public record Relay(@DefaultValue("localhost") String host,
+                        @DefaultValue("61613") int port,
+                        @DefaultValue("guest") String login,
+                        @DefaultValue("guest") String passcode,
+                        @DefaultValue("/") String virtualHost) {
+    }
+}
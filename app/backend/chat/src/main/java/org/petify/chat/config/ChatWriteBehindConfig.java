@@ -0,0 +1,45 @@
+package org.petify.chat.config;
+
+import org.petify.chat.service.ChatMessageWriter;
+
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Durable queue between accepting a chat message and storing it, see {@link ChatMessageWriter}.
+ */
+@Configuration
+public class ChatWriteBehindConfig {
+
+    @Bean
+    public Queue chatPendingMessagesQueue() {
+        return QueueBuilder.durable(ChatMessageWriter.PENDING_QUEUE).build();
+    }
+
+    // one consumer per replica receiving up to batch-size messages at a time, acknowledged when the listener
+    // returns and requeued when it throws
+    @Bean
+    public SimpleRabbitListenerContainerFactory chatMessageWriterContainerFactory(
+            ConnectionFactory connectionFactory,
+            @Value("${petify.chat.write-behind.batch-size:200}") int batchSize,
+            @Value("${petify.chat.write-behind.batch-wait-ms:100}") long batchWaitMs) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        factory.setDefaultRequeueRejected(true);
+        factory.setConcurrentConsumers(1);
+        factory.setMaxConcurrentConsumers(1);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setPrefetchCount(batchSize);
+        factory.setReceiveTimeout(batchWaitMs);
+        return factory;
+    }
+}
@@ -0,0 +1,46 @@
+package org.petify.chat.config;
+
+import org.petify.chat.messaging.FanoutUserMessageSender;
+import org.petify.chat.messaging.LocalUserMessageSender;
+import org.petify.chat.messaging.UserMessageSender;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+@ConditionalOnProperty(name = "petify.chat.broker.mode", havingValue = "fanout")
+public class FanoutBrokerConfig {
+
+    @Bean
+    public FanoutExchange chatUserMessagesExchange() {
+        return new FanoutExchange(FanoutUserMessageSender.EXCHANGE);
+    }
+
+    // one exclusive, auto-delete queue per replica, gone with the replica's connection
+    @Bean
+    public Queue chatUserMessagesQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding chatUserMessagesBinding(Queue chatUserMessagesQueue, FanoutExchange chatUserMessagesExchange) {
+        return BindingBuilder.bind(chatUserMessagesQueue).to(chatUserMessagesExchange);
+    }
+
+    @Bean
+    @Primary
+    public UserMessageSender fanoutUserMessageSender(RabbitTemplate rabbitTemplate,
+                                                     LocalUserMessageSender localSender,
+                                                     ObjectMapper objectMapper) {
+        return new FanoutUserMessageSender(rabbitTemplate, localSender, objectMapper);
+    }
+}
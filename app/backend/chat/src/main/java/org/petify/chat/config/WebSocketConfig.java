@@ -1,7 +1,11 @@
 package org.petify.chat.config;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -9,10 +13,16 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 
 @Configuration
 @EnableWebSocketMessageBroker
+@EnableConfigurationProperties(ChatBrokerProperties.class)
 @RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final JwtHandshakeInterceptor jwtInterceptor;
+    private final ChatBrokerProperties brokerProperties;
+
+    // same switch that moves Tomcat's request threads to virtual threads
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry reg) {
@@ -22,9 +32,39 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .withSockJS();
     }
 
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) {
+            registration.executor(new VirtualThreadTaskExecutor("chat-inbound-"));
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) {
+            registration.executor(new VirtualThreadTaskExecutor("chat-outbound-"));
+        }
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry conf) {
-        conf.enableSimpleBroker("/queue", "/topic");
+        if (brokerProperties.mode() == ChatBrokerProperties.Mode.RELAY) {
+            ChatBrokerProperties.Relay relay = brokerProperties.relay();
+            // the broadcast destinations let every replica resolve /user/** for sessions held by other replicas
+            conf.enableStompBrokerRelay("/queue", "/topic")
+                    .setRelayHost(relay.host())
+                    .setRelayPort(relay.port())
+                    .setClientLogin(relay.login())
+                    .setClientPasscode(relay.passcode())
+                    .setSystemLogin(relay.login())
+                    .setSystemPasscode(relay.passcode())
+                    .setVirtualHost(relay.virtualHost())
+                    .setUserDestinationBroadcast("/topic/unresolved-user")
+                    .setUserRegistryBroadcast("/topic/user-registry");
+        } else {
+            // fanout mode delivers locally too, replicas exchange messages through FanoutUserMessageSender
+            conf.enableSimpleBroker("/queue", "/topic");
+        }
         conf.setApplicationDestinationPrefixes("/app");
         conf.setUserDestinationPrefix("/user");
     }
@@ -6,6 +6,7 @@ import org.petify.chat.service.ChatService;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -42,6 +43,17 @@ public class ChatRestController {
         return chatService.history(roomId, jwt.getSubject(), page, size);
     }
 
+    // keyset pages: pass the id of the oldest message received as before, stop when hasNext is false
+    @PreAuthorize("hasAnyRole('ADMIN','USER','SHELTER','VOLUNTEER')")
+    @GetMapping("/history/{roomId}/slice")
+    public Slice<ChatMessageDTO> historySlice(@PathVariable Long roomId,
+                                              @RequestParam(required = false) String before,
+                                              @RequestParam(defaultValue = "40") int size,
+                                              @AuthenticationPrincipal Jwt jwt) {
+
+        return chatService.historyBefore(roomId, jwt.getSubject(), before, size);
+    }
+
     @PreAuthorize("hasAnyRole('ADMIN','USER','VOLUNTEER')")
     @GetMapping("/room/{petId}")
     public ChatRoomDTO openRoomForUser(@PathVariable Long petId,
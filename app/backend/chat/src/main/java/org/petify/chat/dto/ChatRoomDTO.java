@@ -8,5 +8,12 @@ public record ChatRoomDTO(
         String userName,
         String shelterName,
         long unreadCount,
-        LocalDateTime lastMessageTimestamp
-) {}
+        LocalDateTime lastMessageTimestamp,
+        String lastMessagePreview
+) {
+    public static final int PREVIEW_LENGTH = 100;
+
+    public static String preview(String content) {
+        return content == null || content.length() <= PREVIEW_LENGTH ? content : content.substring(0, PREVIEW_LENGTH);
+    }
+}
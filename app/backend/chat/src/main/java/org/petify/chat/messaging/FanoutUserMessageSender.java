@@ -0,0 +1,48 @@
+package org.petify.chat.messaging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.io.IOException;
+
+/**
+ * Publishes user messages to a RabbitMQ fanout exchange. Every replica consumes them from its own queue and
+ * delivers to the sessions it holds, the others have no session for the user and drop the message.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class FanoutUserMessageSender implements UserMessageSender {
+
+    public static final String EXCHANGE = "petify.chat.user-messages";
+
+    private final RabbitTemplate rabbitTemplate;
+    private final LocalUserMessageSender localSender;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void sendToUser(String user, String destination, Object payload) {
+        try {
+            UserMessage message = new UserMessage(user, destination, objectMapper.valueToTree(payload));
+            rabbitTemplate.convertAndSend(EXCHANGE, "", objectMapper.writeValueAsBytes(message));
+        } catch (JsonProcessingException | AmqpException e) {
+            // sessions on other replicas miss this push and catch up on their next history or rooms call
+            log.warn("Fanout of {} to {} failed, delivering locally only", destination, user, e);
+            localSender.sendToUser(user, destination, payload);
+        }
+    }
+
+    @RabbitListener(queues = "#{chatUserMessagesQueue.name}")
+    public void deliver(byte[] body) throws IOException {
+        UserMessage message = objectMapper.readValue(body, UserMessage.class);
+        localSender.sendToUser(message.user(), message.destination(), message.payload());
+    }
+
+    record UserMessage(String user, String destination, JsonNode payload) {
+    }
+}
@@ -0,0 +1,20 @@
+package org.petify.chat.messaging;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands the payload to this replica's message broker, which is enough for the simple and relay modes.
+ */
+@Component
+@RequiredArgsConstructor
+public class LocalUserMessageSender implements UserMessageSender {
+
+    private final SimpMessagingTemplate template;
+
+    @Override
+    public void sendToUser(String user, String destination, Object payload) {
+        template.convertAndSendToUser(user, destination, payload);
+    }
+}
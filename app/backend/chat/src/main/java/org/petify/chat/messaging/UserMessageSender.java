@@ -0,0 +1,9 @@
+package org.petify.chat.messaging;
+
+/**
+ * Sends a payload to every STOMP session of a user, whichever chat replica holds it.
+ */
+public interface UserMessageSender {
+
+    void sendToUser(String user, String destination, Object payload);
+}
@@ -0,0 +1,123 @@
+package org.petify.chat.messaging;
+
+import org.petify.chat.dto.ChatRoomDTO;
+import org.petify.chat.repository.ChatRoomRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Debounces the {@code /queue/unread} and {@code /queue/rooms} pushes per user. The first update opens a
+ * window, updates within it replace earlier ones for the same room, and when it closes the user gets one
+ * frame per changed room and a single unread total read at that moment. Frames that never had to be sent
+ * are counted in {@code chat.push.frames.saved}.
+ */
+@Slf4j
+@Component
+public class UserUpdateAggregator {
+
+    private static final String UNREAD = "/queue/unread";
+    private static final String ROOMS = "/queue/rooms";
+
+    private final UserMessageSender messageSender;
+    private final ChatRoomRepository roomRepo;
+    private final long windowMs;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, PendingUpdates> pending = new ConcurrentHashMap<>();
+
+    private final Counter unreadSent;
+    private final Counter unreadSaved;
+    private final Counter roomsSent;
+    private final Counter roomsSaved;
+
+    public UserUpdateAggregator(UserMessageSender messageSender,
+                                ChatRoomRepository roomRepo,
+                                MeterRegistry meterRegistry,
+                                @Value("${petify.chat.push.window-ms:150}") long windowMs,
+                                @Value("${petify.chat.push.threads:2}") int threads) {
+        this.messageSender = messageSender;
+        this.roomRepo = roomRepo;
+        this.windowMs = windowMs;
+        this.scheduler = Executors.newScheduledThreadPool(threads, flushThreads());
+        this.unreadSent = meterRegistry.counter("chat.push.frames.sent", "destination", UNREAD);
+        this.unreadSaved = meterRegistry.counter("chat.push.frames.saved", "destination", UNREAD);
+        this.roomsSent = meterRegistry.counter("chat.push.frames.sent", "destination", ROOMS);
+        this.roomsSaved = meterRegistry.counter("chat.push.frames.saved", "destination", ROOMS);
+    }
+
+    public void unreadChanged(String user) {
+        pending.compute(user, (u, updates) -> {
+            PendingUpdates p = updates != null ? updates : open(u);
+            p.unreadRequests++;
+            return p;
+        });
+    }
+
+    public void roomChanged(String user, ChatRoomDTO room) {
+        pending.compute(user, (u, updates) -> {
+            PendingUpdates p = updates != null ? updates : open(u);
+            p.roomRequests++;
+            p.rooms.put(room.id(), room);
+            return p;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private PendingUpdates open(String user) {
+        scheduler.schedule(() -> flush(user), windowMs, TimeUnit.MILLISECONDS);
+        return new PendingUpdates();
+    }
+
+    // removing the entry under the map's lock means later updates start a new window instead of getting lost
+    private void flush(String user) {
+        PendingUpdates p = pending.remove(user);
+        if (p == null) {
+            return;
+        }
+        try {
+            p.rooms.values().forEach(room -> messageSender.sendToUser(user, ROOMS, room));
+            roomsSent.increment(p.rooms.size());
+            roomsSaved.increment(p.roomRequests - p.rooms.size());
+
+            if (p.unreadRequests > 0) {
+                messageSender.sendToUser(user, UNREAD, roomRepo.sumUnreadCountFor(user));
+                unreadSent.increment();
+                unreadSaved.increment(p.unreadRequests - 1);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Pushing chat updates to {} failed", user, e);
+        }
+    }
+
+    private static ThreadFactory flushThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "chat-push-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class PendingUpdates {
+        private final Map<Long, ChatRoomDTO> rooms = new LinkedHashMap<>();
+        private int roomRequests;
+        private int unreadRequests;
+    }
+}
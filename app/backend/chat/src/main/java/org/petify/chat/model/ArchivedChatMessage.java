@@ -0,0 +1,45 @@
+package org.petify.chat.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * A {@link ChatMessage} moved out of the hot table by the retention job. It keeps its original id, so keyset
+ * cursors stay valid when history scrolls from the hot table into the archive.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@Entity
+@Table(name = "chat_message_archive", indexes = {
+        @Index(name = "idx_chat_message_archive_room_ts_id", columnList = "roomId, timestamp DESC, id DESC")
+})
+public class ArchivedChatMessage {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long roomId;
+
+    @Column(nullable = false)
+    private String sender;
+
+    @Column(nullable = false, length = 1000)
+    private String content;
+
+    @Column(nullable = false)
+    private LocalDateTime timestamp;
+}
@@ -5,6 +5,8 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -21,6 +23,13 @@ import java.time.LocalDateTime;
 @EqualsAndHashCode(of = {"roomId", "sender", "timestamp"})
 @ToString
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_chat_message_room_id_id", columnList = "roomId, id"),
+        // keyset history: newest first within a room, id breaks timestamp ties
+        @Index(name = "idx_chat_message_room_ts_id", columnList = "roomId, timestamp DESC, id DESC"),
+        // retention scans for messages past the hot window
+        @Index(name = "idx_chat_message_timestamp", columnList = "timestamp")
+})
 public class ChatMessage {
 
     @Id
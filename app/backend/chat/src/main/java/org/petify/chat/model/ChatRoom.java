@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
@@ -12,6 +13,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 
@@ -21,7 +23,14 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @ToString
 @Entity
-@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"pet_id", "userName"}))
+@DynamicUpdate
+@Table(
+        uniqueConstraints = @UniqueConstraint(columnNames = {"pet_id", "userName"}),
+        indexes = {
+                @Index(name = "idx_chat_room_user_name", columnList = "userName"),
+                @Index(name = "idx_chat_room_shelter_name", columnList = "shelterName")
+        }
+)
 public class ChatRoom {
 
     @Id
@@ -57,4 +66,11 @@ public class ChatRoom {
 
     @Column(name = "last_message_timestamp")
     private LocalDateTime lastMessageTimestamp;
+
+    // messages not sent by that side since it last read the room, null until backfilled on startup
+    @Column(name = "user_unread_count")
+    private Long userUnreadCount;
+
+    @Column(name = "shelter_unread_count")
+    private Long shelterUnreadCount;
 }
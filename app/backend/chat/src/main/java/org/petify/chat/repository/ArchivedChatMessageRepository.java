@@ -0,0 +1,36 @@
+package org.petify.chat.repository;
+
+import org.petify.chat.model.ArchivedChatMessage;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ArchivedChatMessageRepository extends JpaRepository<ArchivedChatMessage, Long> {
+
+    @Query("SELECT m FROM ArchivedChatMessage m WHERE m.roomId = :roomId AND m.timestamp > :after "
+            + "ORDER BY m.timestamp DESC, m.id DESC")
+    Slice<ArchivedChatMessage> findLatest(@Param("roomId") Long roomId,
+                                          @Param("after") LocalDateTime after,
+                                          Pageable pageable);
+
+    @Query("SELECT m FROM ArchivedChatMessage m WHERE m.roomId = :roomId AND m.timestamp > :after "
+            + "AND (m.timestamp < :beforeTimestamp OR (m.timestamp = :beforeTimestamp AND m.id < :beforeId)) "
+            + "ORDER BY m.timestamp DESC, m.id DESC")
+    Slice<ArchivedChatMessage> findBefore(@Param("roomId") Long roomId,
+                                          @Param("after") LocalDateTime after,
+                                          @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+                                          @Param("beforeId") Long beforeId,
+                                          Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM ArchivedChatMessage m WHERE m.roomId = :roomId")
+    int deleteByRoomId(@Param("roomId") Long roomId);
+}
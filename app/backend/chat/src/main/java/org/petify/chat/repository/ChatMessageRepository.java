@@ -4,24 +4,52 @@ import org.petify.chat.model.ChatMessage;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Optional;
 
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
-    Page<ChatMessage> findByRoomIdOrderByTimestampDesc(Long roomId, Pageable pageable);
-
-    Page<ChatMessage> findByRoomIdAndTimestampAfterOrderByTimestampDesc(
-            Long roomId, LocalDateTime after, Pageable pageable);
-
-    long countByRoomIdAndTimestampAfterAndSenderNot(
-            Long roomId,
-            LocalDateTime after,
-            String senderToExclude);
-
-    long countByRoomIdAndSenderNot(Long roomId, String senderToExclude);
-
-    void deleteByRoomId(Long roomId);
+    /**
+     * Offset pages over the hot table and the archive together, newest first.
+     */
+    @Query(value = "SELECT id, room_id, sender, content, timestamp FROM chat_message "
+            + "WHERE room_id = :roomId AND timestamp > :after "
+            + "UNION ALL "
+            + "SELECT id, room_id, sender, content, timestamp FROM chat_message_archive "
+            + "WHERE room_id = :roomId AND timestamp > :after "
+            + "ORDER BY timestamp DESC, id DESC",
+            countQuery = "SELECT (SELECT count(*) FROM chat_message WHERE room_id = :roomId AND timestamp > :after) "
+                    + "+ (SELECT count(*) FROM chat_message_archive WHERE room_id = :roomId AND timestamp > :after)",
+            nativeQuery = true)
+    Page<ChatMessage> findHistory(@Param("roomId") Long roomId,
+                                  @Param("after") LocalDateTime after,
+                                  Pageable pageable);
+
+    @Query("SELECT m FROM ChatMessage m WHERE m.roomId = :roomId AND m.timestamp > :after "
+            + "ORDER BY m.timestamp DESC, m.id DESC")
+    Slice<ChatMessage> findLatest(@Param("roomId") Long roomId,
+                                  @Param("after") LocalDateTime after,
+                                  Pageable pageable);
+
+    @Query("SELECT m FROM ChatMessage m WHERE m.roomId = :roomId AND m.timestamp > :after "
+            + "AND (m.timestamp < :beforeTimestamp OR (m.timestamp = :beforeTimestamp AND m.id < :beforeId)) "
+            + "ORDER BY m.timestamp DESC, m.id DESC")
+    Slice<ChatMessage> findBefore(@Param("roomId") Long roomId,
+                                  @Param("after") LocalDateTime after,
+                                  @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+                                  @Param("beforeId") Long beforeId,
+                                  Pageable pageable);
+
+    Optional<ChatMessage> findFirstByRoomIdOrderByIdDesc(Long roomId);
+
+    @Modifying
+    @Query("DELETE FROM ChatMessage m WHERE m.roomId = :roomId")
+    int deleteByRoomId(@Param("roomId") Long roomId);
 }
@@ -1,11 +1,15 @@
 package org.petify.chat.repository;
 
+import org.petify.chat.dto.ChatRoomDTO;
 import org.petify.chat.model.ChatRoom;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,8 +18,48 @@ public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
 
     Optional<ChatRoom> findByPetIdAndUserName(Long petId, String userName);
 
-    @Query("SELECT r FROM ChatRoom r "
-            + "WHERE r.userName = :login OR r.shelterName = :login "
+    /**
+     * The visible rooms of {@code login} with its unread count and a preview of the newest message, newest
+     * first. The preview is a correlated lookup of the room's highest message id, so the whole list is one
+     * round trip regardless of the number of rooms.
+     */
+    @Query("SELECT new org.petify.chat.dto.ChatRoomDTO(r.id, r.petId, r.userName, r.shelterName, "
+            + "CASE WHEN r.userName = :login THEN COALESCE(r.userUnreadCount, 0L) "
+            + "ELSE COALESCE(r.shelterUnreadCount, 0L) END, "
+            + "r.lastMessageTimestamp, "
+            + "(SELECT SUBSTRING(m.content, 1, " + ChatRoomDTO.PREVIEW_LENGTH + ") FROM ChatMessage m "
+            + "WHERE m.id = (SELECT MAX(l.id) FROM ChatMessage l WHERE l.roomId = r.id))) "
+            + "FROM ChatRoom r "
+            + "WHERE (r.userName = :login AND r.userVisible = true) "
+            + "OR (r.shelterName = :login AND r.shelterVisible = true) "
             + "ORDER BY r.lastMessageTimestamp DESC NULLS LAST")
-    List<ChatRoom> findAllRoomsForUserSorted(String login);
+    List<ChatRoomDTO> findRoomListFor(@Param("login") String login);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ChatRoom r SET r.userLastReadAt = :readAt, r.userUnreadCount = 0L WHERE r.id = :id")
+    int markReadByUser(@Param("id") Long id, @Param("readAt") LocalDateTime readAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ChatRoom r SET r.shelterLastReadAt = :readAt, r.shelterUnreadCount = 0L WHERE r.id = :id")
+    int markReadByShelter(@Param("id") Long id, @Param("readAt") LocalDateTime readAt);
+
+    @Query("SELECT COALESCE(SUM(CASE WHEN r.userName = :login THEN r.userUnreadCount "
+            + "ELSE r.shelterUnreadCount END), 0) FROM ChatRoom r "
+            + "WHERE (r.userName = :login AND r.userVisible = true) "
+            + "OR (r.shelterName = :login AND r.shelterVisible = true)")
+    long sumUnreadCountFor(@Param("login") String login);
+
+    @Modifying
+    @Query(
+            value = "UPDATE chat_room r SET "
+                    + "user_unread_count = (SELECT count(*) FROM chat_message m WHERE m.room_id = r.id "
+                    + "AND m.sender <> r.user_name "
+                    + "AND (r.user_last_read_at IS NULL OR m.timestamp > r.user_last_read_at)), "
+                    + "shelter_unread_count = (SELECT count(*) FROM chat_message m WHERE m.room_id = r.id "
+                    + "AND m.sender <> r.shelter_name "
+                    + "AND (r.shelter_last_read_at IS NULL OR m.timestamp > r.shelter_last_read_at)) "
+                    + "WHERE r.user_unread_count IS NULL OR r.shelter_unread_count IS NULL",
+            nativeQuery = true
+    )
+    int backfillUnreadCounts();
 }
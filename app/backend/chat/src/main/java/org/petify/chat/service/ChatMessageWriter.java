@@ -0,0 +1,315 @@
+package org.petify.chat.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.dao.NonTransientDataAccessResourceException;
+import org.springframework.dao.UncategorizedDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind store for incoming chat messages. Senders get an id and timestamp right away and the message is
+ * published to the durable {@value #PENDING_QUEUE} RabbitMQ queue; {@link #submit} returns only once the broker
+ * has confirmed it, so an accepted message survives the JVM. A single consumer per replica takes the queue in
+ * batches and inserts them with JDBC, updating each room's counters in the same transaction, and the batch is
+ * acknowledged only after that transaction commits. When the broker cannot confirm a message in time the sender
+ * stores it synchronously instead.
+ *
+ * <p>A failed batch is written again one message at a time: messages the database rejects for good are logged
+ * and skipped, the others are retried until they are stored or, during shutdown, handed back to the broker for
+ * redelivery. The inserts skip ids that already exist, so a redelivery or a retry after an unknown commit
+ * outcome does not duplicate messages.
+ */
+@Slf4j
+@Component
+public class ChatMessageWriter {
+
+    public static final String PENDING_QUEUE = "petify.chat.pending-messages";
+
+    private static final int ID_BLOCK_SIZE = 50;
+    private static final int SHUTDOWN_ATTEMPTS = 3;
+
+    // messages still queued when their room is deleted are dropped; the key share lock makes the check wait for
+    // a concurrent delete of the room, which in turn waits for this insert before deleting the room's messages
+    private static final String INSERT_MESSAGE = "INSERT INTO chat_message (id, room_id, sender, content, timestamp) "
+            + "SELECT ?, ?, ?, ?, CAST(? AS timestamp) "
+            + "WHERE EXISTS (SELECT 1 FROM chat_room WHERE id = ? FOR KEY SHARE) "
+            + "ON CONFLICT (id) DO NOTHING";
+
+    // recipients are pushed a message before it is stored, so messages sent before a participant last read the
+    // room are not counted as unread for them, the same rule the unread backfill uses
+    private static final String UPDATE_ROOM = "UPDATE chat_room SET "
+            + "user_unread_count = COALESCE(user_unread_count, 0) + (SELECT count(*) FROM unnest(?::timestamp[]) "
+            + "AS sent(at) WHERE user_last_read_at IS NULL OR sent.at > user_last_read_at), "
+            + "shelter_unread_count = COALESCE(shelter_unread_count, 0) + (SELECT count(*) FROM unnest(?::timestamp[]) "
+            + "AS sent(at) WHERE shelter_last_read_at IS NULL OR sent.at > shelter_last_read_at), "
+            + "user_visible = user_visible OR ?, "
+            + "shelter_visible = shelter_visible OR ?, "
+            + "last_message_timestamp = GREATEST(COALESCE(last_message_timestamp, ?), ?) "
+            + "WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean confirmsEnabled;
+    private final long confirmTimeoutMs;
+    private final long retryBackoffMs;
+    private final Deque<Long> allocatedIds = new ArrayDeque<>();
+    private final ReentrantLock idLock = new ReentrantLock();
+
+    private volatile boolean running = true;
+
+    public ChatMessageWriter(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ApplicationEventPublisher eventPublisher,
+                             ConnectionFactory connectionFactory,
+                             ObjectMapper objectMapper,
+                             @Value("${petify.chat.write-behind.confirm-timeout-ms:2000}") long confirmTimeoutMs,
+                             @Value("${petify.chat.write-behind.retry-backoff-ms:500}") long retryBackoffMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        // own template so that mandatory publishing reports an unroutable message instead of confirming it
+        this.rabbitTemplate = new RabbitTemplate(connectionFactory);
+        this.rabbitTemplate.setMandatory(true);
+        this.objectMapper = objectMapper;
+        this.confirmsEnabled = connectionFactory.isPublisherConfirms() && connectionFactory.isPublisherReturns();
+        this.confirmTimeoutMs = confirmTimeoutMs;
+        if (!confirmsEnabled) {
+            log.warn("RabbitMQ publisher confirms or returns are off, chat messages are stored synchronously");
+        }
+        this.retryBackoffMs = retryBackoffMs;
+    }
+
+    /**
+     * Takes the next message id from a block reserved on the table's identity sequence. Guarded by a lock rather
+     * than a monitor: callers run on virtual threads, which a monitor held across the query would pin.
+     */
+    public Long nextId() {
+        idLock.lock();
+        try {
+            if (allocatedIds.isEmpty()) {
+                allocatedIds.addAll(jdbcTemplate.queryForList(
+                        "SELECT nextval(pg_get_serial_sequence('chat_message', 'id')) FROM generate_series(1, ?)",
+                        Long.class, ID_BLOCK_SIZE));
+            }
+            return allocatedIds.poll();
+        } finally {
+            idLock.unlock();
+        }
+    }
+
+    /**
+     * Makes the message durable before the caller pushes it to anyone: published to the pending queue and
+     * confirmed by the broker, or stored in the calling thread when that does not succeed within the confirm
+     * timeout.
+     */
+    public void submit(PendingChatMessage message) {
+        if (running && confirmsEnabled && publish(message)) {
+            return;
+        }
+        log.warn("Could not queue chat message {} on the broker, storing it synchronously", message.id());
+        write(List.of(message));
+    }
+
+    // a message confirmed after the timeout is stored twice, the second insert skips the existing id
+    private boolean publish(PendingChatMessage message) {
+        CorrelationData confirmation = new CorrelationData(message.id().toString());
+        try {
+            rabbitTemplate.convertAndSend("", PENDING_QUEUE, objectMapper.writeValueAsBytes(message), confirmation);
+            CorrelationData.Confirm confirm = confirmation.getFuture().get(confirmTimeoutMs, TimeUnit.MILLISECONDS);
+            return confirm.isAck() && confirmation.getReturned() == null;
+        } catch (JsonProcessingException | AmqpException | ExecutionException | TimeoutException e) {
+            log.warn("Publishing chat message {} failed: {}", message.id(), e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void onContextClosed() {
+        running = false;
+    }
+
+    /**
+     * Stores a batch taken from the pending queue. Returning acknowledges the whole batch, so this only returns
+     * once every message is stored or skipped for good; throwing hands the batch back to the broker.
+     */
+    @RabbitListener(queues = PENDING_QUEUE, containerFactory = "chatMessageWriterContainerFactory")
+    public void storePending(List<Message> deliveries) {
+        List<PendingChatMessage> batch = new ArrayList<>(deliveries.size());
+        for (Message delivery : deliveries) {
+            try {
+                batch.add(objectMapper.readValue(delivery.getBody(), PendingChatMessage.class));
+            } catch (IOException e) {
+                log.error("Skipping unreadable pending chat message", e);
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeWithRetry(batch);
+        }
+    }
+
+    private void writeWithRetry(List<PendingChatMessage> batch) {
+        try {
+            write(batch);
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Storing {} chat messages failed, storing them one at a time", batch.size(), e);
+        }
+
+        // one bad message must not hold back the rest of the batch or the queue behind it
+        for (PendingChatMessage message : batch) {
+            writeOneWithRetry(message);
+        }
+    }
+
+    private void writeOneWithRetry(PendingChatMessage message) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write(List.of(message));
+                return;
+            } catch (RuntimeException e) {
+                if (isPermanent(e)) {
+                    log.error("Skipping chat message {} in room {}, the database rejected it",
+                            message.id(), message.roomId(), e);
+                    return;
+                }
+                if (!running && attempt >= SHUTDOWN_ATTEMPTS) {
+                    // the broker redelivers the batch, messages stored meanwhile are skipped then
+                    throw new IllegalStateException("Chat message " + message.id()
+                            + " could not be stored before shutdown", e);
+                }
+                log.warn("Storing chat message {} failed (attempt {}), retrying", message.id(), attempt, e);
+                sleepQuietly(retryBackoffMs);
+            }
+        }
+    }
+
+    // constraint violations, bad data and bad SQL fail the same way on every attempt; lost connections,
+    // timeouts, deadlocks and anything uncategorized may succeed later
+    private static boolean isPermanent(RuntimeException e) {
+        return e instanceof NonTransientDataAccessException
+                && !(e instanceof NonTransientDataAccessResourceException)
+                && !(e instanceof UncategorizedDataAccessException);
+    }
+
+    private void write(List<PendingChatMessage> batch) {
+        List<PendingChatMessage> stored = transactionTemplate.execute(status -> {
+            int[][] counts = jdbcTemplate.batchUpdate(INSERT_MESSAGE, batch, batch.size(), (ps, m) -> {
+                ps.setLong(1, m.id());
+                ps.setLong(2, m.roomId());
+                ps.setString(3, m.sender());
+                ps.setString(4, m.content());
+                ps.setTimestamp(5, Timestamp.valueOf(m.timestamp()));
+                ps.setLong(6, m.roomId());
+            });
+
+            // only rows actually inserted count towards the room, skipping deleted rooms and ids already stored
+            List<PendingChatMessage> inserted = new ArrayList<>(batch.size());
+            int index = 0;
+            for (int[] chunk : counts) {
+                for (int count : chunk) {
+                    if (count != 0) {
+                        inserted.add(batch.get(index));
+                    }
+                    index++;
+                }
+            }
+
+            List<RoomDelta> deltas = roomDeltas(inserted);
+            jdbcTemplate.batchUpdate(UPDATE_ROOM, deltas, deltas.size(), (ps, d) -> {
+                Timestamp last = Timestamp.valueOf(d.lastMessageAt);
+                ps.setArray(1, ps.getConnection().createArrayOf("timestamp", d.userUnread.toArray()));
+                ps.setArray(2, ps.getConnection().createArrayOf("timestamp", d.shelterUnread.toArray()));
+                ps.setBoolean(3, d.userVisible);
+                ps.setBoolean(4, d.shelterVisible);
+                ps.setTimestamp(5, last);
+                ps.setTimestamp(6, last);
+                ps.setLong(7, d.roomId);
+            });
+            return inserted;
+        });
+        if (stored != null && !stored.isEmpty()) {
+            eventPublisher.publishEvent(new ChatMessagesWrittenEvent(List.copyOf(stored)));
+        }
+    }
+
+    // same rules as the former synchronous path: every side other than the sender gets an unread message
+    // and a shelter message brings a hidden room back for the user, any other message for the shelter
+    private static List<RoomDelta> roomDeltas(List<PendingChatMessage> batch) {
+        Map<Long, RoomDelta> deltas = new LinkedHashMap<>();
+        for (PendingChatMessage m : batch) {
+            RoomDelta d = deltas.computeIfAbsent(m.roomId(), id -> new RoomDelta(id, m.timestamp()));
+            if (!m.sender().equals(m.userName())) {
+                d.userUnread.add(Timestamp.valueOf(m.timestamp()));
+            }
+            if (!m.sender().equals(m.shelterName())) {
+                d.shelterUnread.add(Timestamp.valueOf(m.timestamp()));
+            }
+            if (m.fromShelter()) {
+                d.userVisible = true;
+            } else {
+                d.shelterVisible = true;
+            }
+            if (m.timestamp().isAfter(d.lastMessageAt)) {
+                d.lastMessageAt = m.timestamp();
+            }
+        }
+        return new ArrayList<>(deltas.values());
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            // interrupted by shutdown, the caller decides whether to retry
+        }
+    }
+
+    private static final class RoomDelta {
+        private final Long roomId;
+        private final List<Timestamp> userUnread = new ArrayList<>();
+        private final List<Timestamp> shelterUnread = new ArrayList<>();
+        private boolean userVisible;
+        private boolean shelterVisible;
+        private LocalDateTime lastMessageAt;
+
+        private RoomDelta(Long roomId, LocalDateTime lastMessageAt) {
+            this.roomId = roomId;
+            this.lastMessageAt = lastMessageAt;
+        }
+    }
+}
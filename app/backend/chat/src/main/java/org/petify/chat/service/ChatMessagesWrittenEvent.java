@@ -0,0 +1,9 @@
+package org.petify.chat.service;
+
+import java.util.List;
+
+/**
+ * Published by {@link ChatMessageWriter} once a batch of messages and its room counters are committed.
+ */
+public record ChatMessagesWrittenEvent(List<PendingChatMessage> messages) {
+}
@@ -0,0 +1,61 @@
+package org.petify.chat.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Moves messages older than the hot window from {@code chat_message} to {@code chat_message_archive}. Each
+ * batch is one statement that deletes and archives the same rows, so a crash between batches loses nothing,
+ * and SKIP LOCKED lets several replicas run the job at once without waiting on each other.
+ */
+@Slf4j
+@Component
+public class ChatRetentionService {
+
+    private static final String ARCHIVE_BATCH = "WITH moved AS ("
+            + "DELETE FROM chat_message WHERE id IN ("
+            + "SELECT id FROM chat_message WHERE timestamp < ? ORDER BY timestamp LIMIT ? FOR UPDATE SKIP LOCKED) "
+            + "RETURNING id, room_id, sender, content, timestamp), "
+            + "archived AS (INSERT INTO chat_message_archive (id, room_id, sender, content, timestamp) "
+            + "SELECT id, room_id, sender, content, timestamp FROM moved ON CONFLICT (id) DO NOTHING) "
+            + "SELECT count(*) FROM moved";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int hotDays;
+    private final int batchSize;
+
+    public ChatRetentionService(JdbcTemplate jdbcTemplate,
+                                @Value("${petify.chat.retention.enabled:true}") boolean enabled,
+                                @Value("${petify.chat.retention.hot-days:90}") int hotDays,
+                                @Value("${petify.chat.retention.batch-size:5000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.hotDays = hotDays;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${petify.chat.retention.cron:0 30 3 * * *}")
+    public void archiveOldMessages() {
+        if (!enabled) {
+            return;
+        }
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(hotDays));
+        long total = 0;
+        Long moved;
+        do {
+            moved = jdbcTemplate.queryForObject(ARCHIVE_BATCH, Long.class, cutoff, batchSize);
+            total += moved != null ? moved : 0;
+        } while (moved != null && moved > 0);
+
+        if (total > 0) {
+            log.info("Archived {} chat messages older than {} days", total, hotDays);
+        }
+    }
+}
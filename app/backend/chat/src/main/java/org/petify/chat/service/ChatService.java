@@ -1,5 +1,7 @@
 package org.petify.chat.service;
 
+import org.petify.chat.cache.ChatRoomCache;
+import org.petify.chat.cache.ChatRoomSnapshot;
 import org.petify.chat.client.ShelterClient;
 import org.petify.chat.dto.ChatMessageDTO;
 import org.petify.chat.dto.ChatRoomDTO;
@@ -9,24 +11,40 @@ import org.petify.chat.exception.InvalidChatParameterException;
 import org.petify.chat.exception.InvalidMessageException;
 import org.petify.chat.exception.InvalidRoomStateException;
 import org.petify.chat.exception.ShelterServiceUnavailableException;
+import org.petify.chat.messaging.UserMessageSender;
+import org.petify.chat.messaging.UserUpdateAggregator;
+import org.petify.chat.model.ArchivedChatMessage;
 import org.petify.chat.model.ChatMessage;
 import org.petify.chat.model.ChatRoom;
+import org.petify.chat.repository.ArchivedChatMessageRepository;
 import org.petify.chat.repository.ChatMessageRepository;
 import org.petify.chat.repository.ChatRoomRepository;
+import org.petify.chat.util.TransactionCallbacks;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -37,63 +55,75 @@ public class ChatService {
     private static final int MAX_MESSAGE_LENGTH = 1000;
     private static final int MAX_PAGE_SIZE = 100;
     private static final int MIN_PAGE_SIZE = 1;
+    // lower bound for rooms that were never hidden, older than any message
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(2000, 1, 1, 0, 0);
 
     private final ChatRoomRepository roomRepo;
     private final ChatMessageRepository msgRepo;
+    private final ArchivedChatMessageRepository archiveRepo;
     private final ShelterClient shelterClient;
-    private final SimpMessagingTemplate broker;
-
+    private final UserMessageSender messageSender;
+    private final ChatMessageWriter messageWriter;
+    private final ChatRoomCache roomCache;
+    private final UserUpdateAggregator userUpdates;
+
+    /**
+     * Accepts a message and pushes it to the recipient once {@link ChatMessageWriter} has made it durable. Storing
+     * it and bumping the room's counters happen later, the unread and room list pushes follow in
+     * {@link #onMessagesWritten}.
+     */
+    // no transaction: a cached room needs no connection at all
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void handleIncoming(Long roomId, String content, String login) {
         validateRoomId(roomId);
         validateMessageContent(content);
         validateLogin(login);
 
-        ChatRoom room = roomRepo.findById(roomId)
-                .orElseThrow(() -> new ChatNotFoundException("Chat room with ID " + roomId + " not found"));
+        ChatRoomSnapshot room = roomCache.get(roomId);
 
         checkParticipantOrAdmin(room, login);
 
-        boolean fromShelter = login.equals(room.getShelterName());
-
-        if (fromShelter && !room.isUserVisible()) {
-            room.setUserVisible(true);
-        }
-        if (!fromShelter && !room.isShelterVisible()) {
-            room.setShelterVisible(true);
-        }
-
-        ChatMessage saved = msgRepo.save(
-                new ChatMessage(null, roomId, login, content.trim(), LocalDateTime.now())
-        );
-
-        room.setLastMessageTimestamp(saved.getTimestamp());
-        roomRepo.save(room);
-
-        String recipient = fromShelter ? room.getUserName() : room.getShelterName();
+        boolean fromShelter = login.equals(room.shelterName());
+        String recipient = fromShelter ? room.userName() : room.shelterName();
 
         if (Objects.equals(recipient, login)) {
             throw new InvalidRoomStateException("Cannot send messages to yourself");
         }
 
-        broker.convertAndSendToUser(recipient, "/queue/chat/" + roomId, map(saved, room));
-
-        long totalUnread = totalUnreadFor(recipient);
-        broker.convertAndSendToUser(recipient, "/queue/unread", totalUnread);
+        PendingChatMessage message = PendingChatMessage.of(messageWriter.nextId(), room, login, content.trim(),
+                LocalDateTime.now(), recipient);
+        messageWriter.submit(message);
 
-        ChatRoomDTO updatedRoomForRecipient = map(room, recipient);
-        broker.convertAndSendToUser(recipient, "/queue/rooms", updatedRoomForRecipient);
+        messageSender.sendToUser(recipient, "/queue/chat/" + roomId, new ChatMessageDTO(message.id(), roomId,
+                room.petId(), login, message.content(), message.timestamp()));
 
         log.info("Message sent from {} to {} in room {}", login, recipient, roomId);
     }
 
+    @EventListener
+    @Transactional(readOnly = true)
+    public void onMessagesWritten(ChatMessagesWrittenEvent event) {
+        Map<Long, PendingChatMessage> latestByRoom = new LinkedHashMap<>();
+        event.messages().forEach(m -> latestByRoom.merge(m.roomId(), m, (a, b) -> b.id() > a.id() ? b : a));
+
+        Map<Long, ChatRoom> rooms = roomRepo.findAllById(latestByRoom.keySet()).stream()
+                .collect(Collectors.toMap(ChatRoom::getId, Function.identity()));
+        // the writer may have made the rooms visible again
+        rooms.values().forEach(roomCache::put);
+
+        latestByRoom.values().forEach(m -> {
+            ChatRoom room = rooms.get(m.roomId());
+            if (room != null) {
+                userUpdates.roomChanged(m.recipient(), map(room, m.recipient(), m.content()));
+                userUpdates.unreadChanged(m.recipient());
+            }
+        });
+    }
+
     @Transactional(readOnly = true)
     public List<ChatRoomDTO> myRooms(String login) {
         validateLogin(login);
-        List<ChatRoom> rooms = roomRepo.findAllRoomsForUserSorted(login);
-        return rooms.stream()
-                .filter(r -> visibleFor(r, login))
-                .map(r -> map(r, login))
-                .toList();
+        return roomRepo.findRoomListFor(login);
     }
 
     @Transactional
@@ -102,24 +132,106 @@ public class ChatService {
         validateLogin(login);
         validatePaginationParams(page, size);
 
-        ChatRoom room = roomRepo.findById(roomId)
-                .orElseThrow(() -> new ChatNotFoundException("Chat room with ID " + roomId + " not found"));
+        ChatRoomSnapshot room = roomCache.get(roomId);
 
         checkParticipantOrAdmin(room, login);
 
         markAsRead(room, login);
 
-        LocalDateTime afterHidden = login.equals(room.getUserName())
-                ? room.getUserHiddenAt()
-                : room.getShelterHiddenAt();
+        LocalDateTime afterHidden = room.hiddenAtFor(login);
+        LocalDateTime after = afterHidden != null ? afterHidden : HISTORY_START;
 
-        PageRequest pr = PageRequest.of(page, size);
-        return (afterHidden == null
-                ? msgRepo.findByRoomIdOrderByTimestampDesc(roomId, pr)
-                : msgRepo.findByRoomIdAndTimestampAfterOrderByTimestampDesc(roomId, afterHidden, pr))
-                .map(m -> map(m, room));
+        return msgRepo.findHistory(roomId, after, PageRequest.of(page, size))
+                .map(m -> map(m, room.petId()));
     }
 
+    /**
+     * Keyset variant of {@link #history}: the messages right before {@code before}, newest first, without
+     * counting the room's messages. {@code before} is either the id of the oldest message the client holds or
+     * an ISO timestamp, and is omitted for the newest messages. Once the hot table runs out the page continues
+     * in the archive.
+     */
+    @Transactional
+    public Slice<ChatMessageDTO> historyBefore(Long roomId, String login, String before, int size) {
+        validateRoomId(roomId);
+        validateLogin(login);
+        validatePaginationParams(0, size);
+
+        ChatRoomSnapshot room = roomCache.get(roomId);
+
+        checkParticipantOrAdmin(room, login);
+
+        markAsRead(room, login);
+
+        LocalDateTime afterHidden = room.hiddenAtFor(login);
+        LocalDateTime after = afterHidden != null ? afterHidden : HISTORY_START;
+
+        Pageable pageable = PageRequest.ofSize(size);
+        HistoryCursor cursor = parseCursor(roomId, before);
+        Slice<ChatMessage> hot = cursor == null
+                ? msgRepo.findLatest(roomId, after, pageable)
+                : msgRepo.findBefore(roomId, after, cursor.timestamp(), cursor.id(), pageable);
+
+        List<ChatMessageDTO> messages = new ArrayList<>(size);
+        hot.forEach(m -> messages.add(map(m, room.petId())));
+        if (hot.hasNext()) {
+            return new SliceImpl<>(messages, pageable, true);
+        }
+
+        // everything archived is older than the hot table, so continue below its oldest message
+        if (hot.hasContent()) {
+            ChatMessage oldest = hot.getContent().get(hot.getNumberOfElements() - 1);
+            cursor = new HistoryCursor(oldest.getTimestamp(), oldest.getId());
+        }
+        int remaining = size - messages.size();
+        Pageable coldPage = PageRequest.ofSize(Math.max(remaining, 1));
+        Slice<ArchivedChatMessage> cold = cursor == null
+                ? archiveRepo.findLatest(roomId, after, coldPage)
+                : archiveRepo.findBefore(roomId, after, cursor.timestamp(), cursor.id(), coldPage);
+        if (remaining == 0) {
+            return new SliceImpl<>(messages, pageable, cold.hasContent());
+        }
+        cold.forEach(m -> messages.add(map(m, room.petId())));
+        return new SliceImpl<>(messages, pageable, cold.hasNext());
+    }
+
+    private HistoryCursor parseCursor(Long roomId, String before) {
+        if (before == null || before.isBlank()) {
+            return null;
+        }
+        if (before.chars().allMatch(Character::isDigit)) {
+            Long messageId = parseMessageId(before);
+            return msgRepo.findById(messageId)
+                    .filter(m -> m.getRoomId().equals(roomId))
+                    .map(m -> new HistoryCursor(m.getTimestamp(), m.getId()))
+                    .or(() -> archiveRepo.findById(messageId)
+                            .filter(m -> m.getRoomId().equals(roomId))
+                            .map(m -> new HistoryCursor(m.getTimestamp(), m.getId())))
+                    .orElseThrow(() -> new InvalidChatParameterException(
+                            "Message " + before + " does not belong to room " + roomId));
+        }
+        // a plain timestamp excludes every message sent at that instant
+        return new HistoryCursor(parseTimestamp(before), Long.MIN_VALUE);
+    }
+
+    private Long parseMessageId(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidChatParameterException("before is not a valid message ID");
+        }
+    }
+
+    private LocalDateTime parseTimestamp(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidChatParameterException("before must be a message ID or an ISO-8601 timestamp");
+        }
+    }
+
+    // runs without a transaction so that waiting on shelter-service does not hold a database connection
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ChatRoomDTO openForUser(Long petId, String userLogin) {
         validatePetId(petId);
         validateLogin(userLogin);
@@ -143,13 +255,15 @@ public class ChatService {
         ChatRoom room = roomRepo.findByPetIdAndUserName(petId, userLogin)
                 .orElseGet(() -> {
                     log.info("Creating new chat room for pet {} and user {}", petId, userLogin);
-                    return roomRepo.save(new ChatRoom(null, petId, userLogin, shelterOwner, true, true, null, null, null, null, null));
+                    return roomRepo.save(new ChatRoom(null, petId, userLogin, shelterOwner, true, true, null, null, null, null, null,
+                            0L, 0L));
                 });
 
         if (!room.isUserVisible()) {
             room.setUserVisible(true);
             roomRepo.save(room);
         }
+        roomCache.put(room);
 
         log.info("Opened/retrieved chat room {} for user {} and pet {}", room.getId(), userLogin, petId);
         return map(room, userLogin);
@@ -159,17 +273,22 @@ public class ChatService {
         validateRoomId(roomId);
         validateLogin(login);
 
+        ChatRoomSnapshot snapshot = roomCache.get(roomId);
+
+        checkParticipantOrAdmin(snapshot, login);
+
+        markAsRead(snapshot, login);
+
+        // loaded after markAsRead so the response carries the reset counter
         ChatRoom room = roomRepo.findById(roomId)
                 .orElseThrow(() -> new ChatNotFoundException("Chat room with ID " + roomId + " not found"));
 
-        checkParticipantOrAdmin(room, login);
-
         if (login.equals(room.getShelterName()) && !room.isShelterVisible()) {
             room.setShelterVisible(true);
             roomRepo.save(room);
+            roomCache.put(room);
         }
 
-        markAsRead(room, login);
         return map(room, login);
     }
 
@@ -180,7 +299,7 @@ public class ChatService {
         ChatRoom room = roomRepo.findById(roomId)
                 .orElseThrow(() -> new ChatNotFoundException("Chat room with ID " + roomId + " not found"));
 
-        checkParticipantOrAdmin(room, login);
+        checkParticipantOrAdmin(ChatRoomSnapshot.of(room), login);
 
         LocalDateTime now = LocalDateTime.now();
 
@@ -201,20 +320,35 @@ public class ChatService {
         roomRepo.save(room);
 
         if (!room.isUserVisible() && !room.isShelterVisible()) {
-            msgRepo.deleteByRoomId(room.getId());
+            // the room row goes first: ChatMessageWriter stops inserting into a deleted room, and an insert
+            // already in flight holds the room until it commits, so the deletes below see its message
             roomRepo.delete(room);
+            roomRepo.flush();
+            msgRepo.deleteByRoomId(room.getId());
+            archiveRepo.deleteByRoomId(room.getId());
+            roomCache.evict(roomId);
             log.info("Deleted chat room {} as it was hidden by both parties", roomId);
         } else {
+            roomCache.put(room);
             log.info("Room {} hidden by {}", roomId, login);
         }
     }
 
     public long totalUnreadFor(String login) {
         validateLogin(login);
-        return roomRepo.findAllRoomsForUserSorted(login).stream()
-                .filter(r -> visibleFor(r, login))
-                .mapToLong(r -> unreadFor(r, login))
-                .sum();
+        return roomRepo.sumUnreadCountFor(login);
+    }
+
+    /**
+     * Rooms created before the unread counters existed get them counted once on startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillUnreadCounts() {
+        int rooms = roomRepo.backfillUnreadCounts();
+        if (rooms > 0) {
+            log.info("Backfilled unread counters of {} chat rooms", rooms);
+        }
     }
 
     private void validateRoomId(Long roomId) {
@@ -242,6 +376,10 @@ public class ChatService {
         if (content.length() > MAX_MESSAGE_LENGTH) {
             throw new InvalidMessageException("Message exceeds maximum length of " + MAX_MESSAGE_LENGTH + " characters");
         }
+        // Postgres cannot store NUL in text columns
+        if (content.indexOf('\0') >= 0) {
+            throw new InvalidMessageException("Message content cannot contain NUL characters");
+        }
     }
 
     private void validatePaginationParams(int page, int size) {
@@ -253,16 +391,12 @@ public class ChatService {
         }
     }
 
-    private void checkParticipantOrAdmin(ChatRoom r, String login) {
-        if (!isParticipant(r, login) && !isAdmin()) {
+    private void checkParticipantOrAdmin(ChatRoomSnapshot r, String login) {
+        if (!r.isParticipant(login) && !isAdmin()) {
             throw new ChatAccessDeniedException("You do not have access to this chat room");
         }
     }
 
-    private boolean isParticipant(ChatRoom r, String login) {
-        return login.equals(r.getUserName()) || login.equals(r.getShelterName());
-    }
-
     private boolean isAdmin() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         return auth != null && auth.getAuthorities().stream()
@@ -270,50 +404,57 @@ public class ChatService {
     }
 
     private ChatRoomDTO map(ChatRoom r, String login) {
+        String lastMessage = msgRepo.findFirstByRoomIdOrderByIdDesc(r.getId())
+                .map(ChatMessage::getContent)
+                .orElse(null);
+        return map(r, login, lastMessage);
+    }
+
+    private ChatRoomDTO map(ChatRoom r, String login, String lastMessage) {
         return new ChatRoomDTO(
                 r.getId(),
                 r.getPetId(),
                 r.getUserName(),
                 r.getShelterName(),
                 unreadFor(r, login),
-                r.getLastMessageTimestamp());
+                r.getLastMessageTimestamp(),
+                ChatRoomDTO.preview(lastMessage));
+    }
+
+    private ChatMessageDTO map(ChatMessage m, Long petId) {
+        return new ChatMessageDTO(m.getId(), m.getRoomId(), petId,
+                m.getSender(), m.getContent(), m.getTimestamp());
     }
 
-    private ChatMessageDTO map(ChatMessage m, ChatRoom r) {
-        return new ChatMessageDTO(m.getId(), m.getRoomId(),
-                r != null ? r.getPetId() : null,
+    private ChatMessageDTO map(ArchivedChatMessage m, Long petId) {
+        return new ChatMessageDTO(m.getId(), m.getRoomId(), petId,
                 m.getSender(), m.getContent(), m.getTimestamp());
     }
 
     private long unreadFor(ChatRoom r, String login) {
-        LocalDateTime after = login.equals(r.getUserName())
-                ? r.getUserLastReadAt()
-                : r.getShelterLastReadAt();
+        return login.equals(r.getUserName())
+                ? unreadCount(r.getUserUnreadCount())
+                : unreadCount(r.getShelterUnreadCount());
+    }
 
-        return (after == null)
-                ? msgRepo.countByRoomIdAndSenderNot(r.getId(), login)
-                : msgRepo.countByRoomIdAndTimestampAfterAndSenderNot(r.getId(), after, login);
+    private static long unreadCount(Long counter) {
+        return counter != null ? counter : 0L;
     }
 
-    private void markAsRead(ChatRoom room, String login) {
+    private void markAsRead(ChatRoomSnapshot room, String login) {
         LocalDateTime now = LocalDateTime.now();
-        boolean updated = false;
-        if (login.equals(room.getUserName())) {
-            room.setUserLastReadAt(now);
-            updated = true;
-        } else if (login.equals(room.getShelterName())) {
-            room.setShelterLastReadAt(now);
-            updated = true;
+        int updated = 0;
+        if (login.equals(room.userName())) {
+            updated = roomRepo.markReadByUser(room.id(), now);
+        } else if (login.equals(room.shelterName())) {
+            updated = roomRepo.markReadByShelter(room.id(), now);
         }
-        if (updated) {
-            roomRepo.save(room);
-            long totalUnread = totalUnreadFor(login);
-            broker.convertAndSendToUser(login, "/queue/unread", totalUnread);
+        if (updated > 0) {
+            roomCache.update(room.id(), r -> r.readBy(login, now));
+            TransactionCallbacks.afterCommit(() -> userUpdates.unreadChanged(login));
         }
     }
 
-    private boolean visibleFor(ChatRoom r, String login) {
-        return (login.equals(r.getUserName()) && r.isUserVisible())
-                || (login.equals(r.getShelterName()) && r.isShelterVisible());
+    private record HistoryCursor(LocalDateTime timestamp, Long id) {
     }
 }
@@ -0,0 +1,32 @@
+package org.petify.chat.service;
+
+import org.petify.chat.cache.ChatRoomSnapshot;
+
+import java.time.LocalDateTime;
+
+/**
+ * An accepted message with its final id and timestamp, held in the durable pending queue until it is stored.
+ * Carries the room participants so the writer can update counters without loading the room.
+ */
+public record PendingChatMessage(
+        Long id,
+        Long roomId,
+        Long petId,
+        String sender,
+        String content,
+        LocalDateTime timestamp,
+        String userName,
+        String shelterName,
+        String recipient
+) {
+
+    static PendingChatMessage of(Long id, ChatRoomSnapshot room, String sender, String content,
+                                 LocalDateTime timestamp, String recipient) {
+        return new PendingChatMessage(id, room.id(), room.petId(), sender, content, timestamp,
+                room.userName(), room.shelterName(), recipient);
+    }
+
+    boolean fromShelter() {
+        return sender.equals(shelterName);
+    }
+}
@@ -0,0 +1,54 @@
+package simulations;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+import io.gatling.javaapi.core.*;
+import io.gatling.javaapi.http.*;
+
+/**
+ * Measures GET /chat/rooms for shelters owning 10, 100 and 1000 rooms. Seed the rooms with
+ * src/test/resources/seed/chat-rooms.sql and pass a token for each shelter login, e.g.
+ * mvn gatling:test -Dgatling.simulationClass=simulations.ChatRoomsSimulation
+ * -Dchat.token.10=... -Dchat.token.100=... -Dchat.token.1000=...
+ */
+public class ChatRoomsSimulation extends Simulation {
+
+    private static final String BASE_URL = System.getProperty("chat.baseUrl", "http://localhost:8050");
+    private static final int USERS_PER_SECOND = Integer.getInteger("chat.usersPerSecond", 20);
+    private static final int DURATION_SECONDS = Integer.getInteger("chat.durationSeconds", 60);
+    private static final int[] ROOM_COUNTS = {10, 100, 1000};
+
+    HttpProtocolBuilder httpProtocol = http
+            .baseUrl(BASE_URL)
+            .acceptHeader("application/json");
+
+    private ScenarioBuilder roomList(int rooms) {
+        String token = System.getProperty("chat.token." + rooms);
+        if (token == null) {
+            throw new IllegalStateException("Missing -Dchat.token." + rooms + " for login loadtest-shelter-" + rooms);
+        }
+
+        return scenario("Room list with " + rooms + " rooms")
+                .exec(http("GET /chat/rooms (" + rooms + " rooms)")
+                        .get("/chat/rooms")
+                        .header("Authorization", "Bearer " + token)
+                        .check(status().is(200))
+                        .check(jsonPath("$[*].id").count().is(rooms)));
+    }
+
+    {
+        PopulationBuilder[] populations = new PopulationBuilder[ROOM_COUNTS.length];
+        for (int i = 0; i < ROOM_COUNTS.length; i++) {
+            populations[i] = roomList(ROOM_COUNTS[i])
+                    .injectOpen(constantUsersPerSec(USERS_PER_SECOND).during(DURATION_SECONDS));
+        }
+
+        setUp(populations)
+                .protocols(httpProtocol)
+                .assertions(
+                        global().successfulRequests().percent().gt(99.0),
+                        details("GET /chat/rooms (1000 rooms)").responseTime().percentile3().lt(500)
+                );
+    }
+}
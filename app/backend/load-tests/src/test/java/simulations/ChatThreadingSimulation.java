@@ -0,0 +1,67 @@
+package simulations;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+import io.gatling.javaapi.core.*;
+import io.gatling.javaapi.http.*;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Ramps up concurrent users that keep opening a pet's chat room, which blocks on the Feign call to
+ * shelter-service, and listing their rooms. Run it once against chat-service started with
+ * CHAT_VIRTUAL_THREADS=false (Tomcat's 200 platform threads) and once with the default virtual threads, then
+ * compare throughput and the 99th percentile in the two reports, e.g.
+ * mvn gatling:test -Dgatling.simulationClass=simulations.ChatThreadingSimulation
+ * -Dchat.token.user=... -Dchat.petIds=1,2,3 -Dchat.maxConcurrentUsers=2000
+ */
+public class ChatThreadingSimulation extends Simulation {
+
+    private static final String BASE_URL = System.getProperty("chat.baseUrl", "http://localhost:8050");
+    private static final int MAX_CONCURRENT_USERS = Integer.getInteger("chat.maxConcurrentUsers", 2000);
+    private static final int RAMP_SECONDS = Integer.getInteger("chat.rampSeconds", 120);
+    private static final int HOLD_SECONDS = Integer.getInteger("chat.holdSeconds", 60);
+
+    HttpProtocolBuilder httpProtocol = http
+            .baseUrl(BASE_URL)
+            .acceptHeader("application/json")
+            .header("Authorization", "Bearer " + requiredProperty("chat.token.user"));
+
+    // cycles through the given pets so that every user keeps hitting shelter-service
+    Iterator<Map<String, Object>> pets = Stream.generate(() -> Arrays.stream(requiredProperty("chat.petIds").split(",")))
+            .flatMap(ids -> ids.map(id -> Map.<String, Object>of("petId", id.trim())))
+            .iterator();
+
+    ScenarioBuilder openAndList = scenario("Open room and list rooms")
+            .feed(pets)
+            .forever().on(
+                    exec(http("GET /chat/room/{petId}")
+                            .get("/chat/room/#{petId}")
+                            .check(status().is(200)))
+                    .exec(http("GET /chat/rooms")
+                            .get("/chat/rooms")
+                            .check(status().is(200)))
+                    .pause(1)
+            );
+
+    {
+        setUp(openAndList.injectClosed(
+                        rampConcurrentUsers(0).to(MAX_CONCURRENT_USERS).during(RAMP_SECONDS),
+                        constantConcurrentUsers(MAX_CONCURRENT_USERS).during(HOLD_SECONDS)))
+                .protocols(httpProtocol)
+                .maxDuration(RAMP_SECONDS + HOLD_SECONDS)
+                .assertions(global().successfulRequests().percent().gt(99.0));
+    }
+
+    private static String requiredProperty(String name) {
+        String value = System.getProperty(name);
+        if (value == null) {
+            throw new IllegalStateException("Missing -D" + name);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,178 @@
+package simulations;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+import io.gatling.javaapi.core.*;
+import io.gatling.javaapi.http.*;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Chat over STOMP: every virtual user plays both sides of one room, registering and logging in both logins
+ * through auth-server, connecting each to /ws-chat with the token in the STOMP CONNECT header and then
+ * exchanging messages. Each message carries its send time, and the receiving side's arrival time gives the
+ * end-to-end delivery latency, printed as percentiles together with delivered messages per second when the
+ * run ends. Seed the rooms with src/test/resources/seed/chat-ws-rooms.sql (same -v rooms as chat.rooms), e.g.
+ * mvn gatling:test -Dgatling.simulationClass=simulations.ChatWebSocketSimulation -Dchat.rooms=1000
+ */
+public class ChatWebSocketSimulation extends Simulation {
+
+    private static final String CHAT_URL = System.getProperty("chat.baseUrl", "http://localhost:8050");
+    private static final String CHAT_WS_URL = System.getProperty("chat.wsBaseUrl", "ws://localhost:8050");
+    private static final String AUTH_URL = System.getProperty("auth.baseUrl", "http://localhost:9000");
+    private static final String PASSWORD = System.getProperty("chat.password", "LoadTest123!");
+    private static final int ROOMS = Integer.getInteger("chat.rooms", 1000);
+    private static final int RAMP_SECONDS = Integer.getInteger("chat.rampSeconds", 60);
+    private static final int MESSAGES_PER_SIDE = Integer.getInteger("chat.messagesPerSide", 30);
+    private static final int PAUSE_MILLIS = Integer.getInteger("chat.pauseMillis", 1000);
+
+    private static final String NUL = "\u0000";
+    private static final Pattern SENT_AT = Pattern.compile("\"content\":\"lt (\\d+)\"");
+    private static final LatencyHistogram LATENCIES = new LatencyHistogram();
+
+    HttpProtocolBuilder httpProtocol = http
+            .baseUrl(CHAT_URL)
+            .wsBaseUrl(CHAT_WS_URL)
+            .acceptHeader("application/json")
+            .contentTypeHeader("application/json")
+            .wsUnmatchedInboundMessageBufferSize(MESSAGES_PER_SIDE * 2);
+
+    ScenarioBuilder conversation = scenario("STOMP conversation")
+            .feed(rooms())
+            .exec(mintToken("user"), mintToken("shelter"))
+            .exec(http("GET /chat/rooms")
+                    .get("/chat/rooms")
+                    .header("Authorization", "Bearer #{userToken}")
+                    .check(status().is(200))
+                    .check(jsonPath("$[0].id").saveAs("roomId")))
+            .exec(connect("user"), connect("shelter"))
+            .repeat(MESSAGES_PER_SIDE).on(
+                    exec(send("user"), send("shelter"))
+                            .pause(Duration.ofMillis(PAUSE_MILLIS))
+                            .exec(recordDeliveries("user"), recordDeliveries("shelter"))
+            )
+            .pause(2)
+            .exec(recordDeliveries("user"), recordDeliveries("shelter"))
+            .exec(ws("Close user").wsName("user").close(), ws("Close shelter").wsName("shelter").close());
+
+    {
+        setUp(conversation.injectOpen(rampUsers(ROOMS).during(RAMP_SECONDS)))
+                .protocols(httpProtocol)
+                .assertions(global().successfulRequests().percent().gt(99.0));
+    }
+
+    @Override
+    public void after() {
+        System.out.printf("%nSTOMP delivery latency over %d messages: p50=%d ms, p95=%d ms, p99=%d ms, max=%d ms%n",
+                LATENCIES.count(), LATENCIES.percentile(50), LATENCIES.percentile(95), LATENCIES.percentile(99),
+                LATENCIES.max());
+        System.out.printf("Delivered %.1f messages/s%n", LATENCIES.ratePerSecond());
+    }
+
+    // registration answers 400 once the login exists, so reruns just log in again
+    private static ChainBuilder mintToken(String side) {
+        String login = "loadtest-ws-" + side + "-#{room}";
+        return exec(http("POST /auth/register (" + side + ")")
+                .post(AUTH_URL + "/auth/register")
+                .body(StringBody("{\"username\":\"" + login + "\",\"firstName\":\"Load\",\"lastName\":\"Test\","
+                        + "\"gender\":\"OTHER\",\"email\":\"" + login + "@petify.test\","
+                        + "\"password\":\"" + PASSWORD + "\",\"createShelter\":" + side.equals("shelter") + "}"))
+                .check(status().in(201, 400)))
+                .exec(http("POST /auth/login (" + side + ")")
+                        .post(AUTH_URL + "/auth/login")
+                        .body(StringBody("{\"loginIdentifier\":\"" + login + "@petify.test\",\"password\":\"" + PASSWORD + "\"}"))
+                        .check(status().is(200))
+                        .check(jsonPath("$.jwt").saveAs(side + "Token")));
+    }
+
+    // SockJS also accepts raw WebSocket clients on {endpoint}/websocket
+    private static ChainBuilder connect(String side) {
+        return exec(ws("Connect " + side).wsName(side).connect("/ws-chat/websocket"))
+                .exec(ws("STOMP CONNECT " + side).wsName(side)
+                        .sendText("CONNECT\naccept-version:1.2\nheart-beat:0,0\n"
+                                + "Authorization:Bearer #{" + side + "Token}\n\n" + NUL)
+                        .await(10).on(ws.checkTextMessage("CONNECTED " + side).check(regex("^CONNECTED"))))
+                .exec(ws("STOMP SUBSCRIBE " + side).wsName(side)
+                        .sendText("SUBSCRIBE\nid:chat-#{roomId}\ndestination:/user/queue/chat/#{roomId}\n\n" + NUL));
+    }
+
+    private static ChainBuilder send(String side) {
+        return exec(ws("STOMP SEND " + side).wsName(side)
+                .sendText(session -> "SEND\ndestination:/app/chat/" + session.getString("roomId")
+                        + "\ncontent-type:text/plain\n\nlt " + System.currentTimeMillis() + NUL));
+    }
+
+    private static ChainBuilder recordDeliveries(String side) {
+        return exec(ws.processUnmatchedMessages(side, (messages, session) -> {
+            messages.forEach(message -> {
+                Matcher matcher = SENT_AT.matcher(String.valueOf(message.message()));
+                if (matcher.find()) {
+                    LATENCIES.record(message.timestamp() - Long.parseLong(matcher.group(1)), message.timestamp());
+                }
+            });
+            return session;
+        }));
+    }
+
+    private static Iterator<Map<String, Object>> rooms() {
+        AtomicLong next = new AtomicLong();
+        return Stream.generate(() -> Map.<String, Object>of("room", next.incrementAndGet()))
+                .limit(ROOMS)
+                .iterator();
+    }
+
+    /**
+     * Millisecond buckets up to a minute, anything slower lands in the last one.
+     */
+    private static final class LatencyHistogram {
+        private static final int BUCKETS = 60_001;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+        private final AtomicLong firstAt = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicLong lastAt = new AtomicLong();
+
+        void record(long latencyMillis, long receivedAt) {
+            long latency = Math.max(latencyMillis, 0);
+            buckets.incrementAndGet((int) Math.min(latency, BUCKETS - 1));
+            count.incrementAndGet();
+            max.accumulateAndGet(latency, Math::max);
+            firstAt.accumulateAndGet(receivedAt, Math::min);
+            lastAt.accumulateAndGet(receivedAt, Math::max);
+        }
+
+        long count() {
+            return count.get();
+        }
+
+        long max() {
+            return max.get();
+        }
+
+        long percentile(double percentile) {
+            long target = (long) Math.ceil(count.get() * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= target && seen > 0) {
+                    return i;
+                }
+            }
+            return 0;
+        }
+
+        double ratePerSecond() {
+            long elapsed = lastAt.get() - firstAt.get();
+            return elapsed > 0 ? count.get() * 1000.0 / elapsed : count.get();
+        }
+    }
+}
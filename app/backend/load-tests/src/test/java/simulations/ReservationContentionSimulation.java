@@ -0,0 +1,127 @@
+package simulations;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+import io.gatling.javaapi.core.*;
+import io.gatling.javaapi.http.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fires reserve.contenders concurrent PATCH /reservations/slots/{id}/reserve calls at each of reserve.slots
+ * fresh slots. Every call must end in 200 or 409, and each slot must have exactly one 200; the run prints
+ * the winners per slot and the reservations handled per second. The slots are created for reserve.petId on a
+ * random far-future day with the shelter token before the run starts, e.g.
+ * mvn gatling:test -Dgatling.simulationClass=simulations.ReservationContentionSimulation
+ * -Dreserve.shelterToken=... -Dreserve.volunteerToken=... -Dreserve.petId=1
+ */
+public class ReservationContentionSimulation extends Simulation {
+
+    private static final String BASE_URL = System.getProperty("reserve.baseUrl", "http://localhost:8011");
+    private static final String SHELTER_TOKEN = System.getProperty("reserve.shelterToken");
+    private static final String VOLUNTEER_TOKEN = System.getProperty("reserve.volunteerToken");
+    private static final long PET_ID = Long.getLong("reserve.petId", 1L);
+    private static final int SLOTS = Integer.getInteger("reserve.slots", 20);
+    private static final int CONTENDERS = Integer.getInteger("reserve.contenders", 300);
+
+    private static final Pattern SLOT_ID = Pattern.compile("\"id\":(\\d+)");
+    private static final List<Long> SLOT_IDS = new ArrayList<>();
+    private static final AtomicInteger NEXT_USER = new AtomicInteger();
+    private static final AtomicIntegerArray WINNERS = new AtomicIntegerArray(SLOTS);
+    private static final AtomicInteger CONFLICTS = new AtomicInteger();
+
+    private long startedAt;
+
+    HttpProtocolBuilder httpProtocol = http
+            .baseUrl(BASE_URL)
+            .acceptHeader("application/json");
+
+    // users are spread round-robin, so every slot sees the same number of contenders
+    ScenarioBuilder contend = scenario("Reserve one slot concurrently")
+            .exec(session -> session.set("slot", NEXT_USER.getAndIncrement() % SLOTS))
+            .exec(http("PATCH /reservations/slots/{id}/reserve")
+                    .patch(session -> "/reservations/slots/" + SLOT_IDS.get(session.getInt("slot")) + "/reserve")
+                    .header("Authorization", "Bearer " + VOLUNTEER_TOKEN)
+                    .check(status().in(200, 409).saveAs("status")))
+            .exec(session -> {
+                if (session.contains("status") && session.getInt("status") == 200) {
+                    WINNERS.incrementAndGet(session.getInt("slot"));
+                } else {
+                    CONFLICTS.incrementAndGet();
+                }
+                return session;
+            });
+
+    {
+        if (SHELTER_TOKEN == null || VOLUNTEER_TOKEN == null) {
+            throw new IllegalStateException("Missing -Dreserve.shelterToken or -Dreserve.volunteerToken");
+        }
+
+        setUp(contend.injectOpen(atOnceUsers(SLOTS * CONTENDERS)))
+                .protocols(httpProtocol)
+                .assertions(global().failedRequests().count().is(0L));
+    }
+
+    @Override
+    public void before() {
+        LocalDate day = LocalDate.now().plusDays(400 + ThreadLocalRandom.current().nextInt(20_000));
+        StringBuilder windows = new StringBuilder();
+        for (int i = 0; i < SLOTS; i++) {
+            windows.append(i == 0 ? "" : ",")
+                    .append("{\"start\":\"").append(LocalTime.ofSecondOfDay(i * 60L))
+                    .append("\",\"end\":\"").append(LocalTime.ofSecondOfDay(i * 60L + 59)).append("\"}");
+        }
+        String body = "{\"petIds\":[" + PET_ID + "],\"allPets\":false,\"startDate\":\"" + day + "\","
+                + "\"endDate\":\"" + day + "\",\"timeWindows\":[" + windows + "]}";
+
+        try {
+            HttpResponse<String> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder()
+                    .uri(URI.create(BASE_URL + "/reservations/slots/batch"))
+                    .header("Authorization", "Bearer " + SHELTER_TOKEN)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            Matcher ids = SLOT_ID.matcher(response.body());
+            while (ids.find()) {
+                SLOT_IDS.add(Long.parseLong(ids.group(1)));
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not create the contended slots", e);
+        }
+        if (SLOT_IDS.size() != SLOTS) {
+            throw new IllegalStateException("Expected " + SLOTS + " new slots on " + day + ", got " + SLOT_IDS.size());
+        }
+        startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void after() {
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        int requests = SLOTS * CONTENDERS;
+        int slotsWithOneWinner = 0;
+        for (int i = 0; i < SLOTS; i++) {
+            System.out.printf("slot %d: %d winner(s)%n", SLOT_IDS.get(i), WINNERS.get(i));
+            if (WINNERS.get(i) == 1) {
+                slotsWithOneWinner++;
+            }
+        }
+        System.out.printf("%n%d reservations on %d slots in %.2f s: %.1f req/s, %d conflicts, %d/%d slots with exactly "
+                + "one winner%n", requests, SLOTS, seconds, requests / seconds, CONFLICTS.get(), slotsWithOneWinner, SLOTS);
+        if (slotsWithOneWinner != SLOTS) {
+            throw new IllegalStateException("Some slots did not end with exactly one reservation");
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package simulations;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+import io.gatling.javaapi.core.*;
+import io.gatling.javaapi.http.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures POST /reservations/slots/batch for a 30 day x 4 window schedule over the given pets (200 by default
+ * gives 24 000 slots per request). Every "fresh" request targets its own month, so it inserts everything; the
+ * "repeat" requests resend the first month, so every slot is skipped as already existing, e.g.
+ * mvn gatling:test -Dgatling.simulationClass=simulations.SlotBatchSimulation
+ * -Dslots.token=... -Dslots.petIds=1-200
+ */
+public class SlotBatchSimulation extends Simulation {
+
+    private static final String BASE_URL = System.getProperty("slots.baseUrl", "http://localhost:8011");
+    private static final String TOKEN = System.getProperty("slots.token");
+    private static final String PET_IDS = System.getProperty("slots.petIds", "1-200");
+    private static final int DAYS = Integer.getInteger("slots.days", 30);
+    private static final int REQUESTS = Integer.getInteger("slots.requests", 10);
+    private static final String[][] WINDOWS = {
+            {"09:00", "10:00"}, {"11:00", "12:00"}, {"13:00", "14:00"}, {"15:00", "16:00"}
+    };
+
+    private static final LocalDate FIRST_DAY = LocalDate.now().plusDays(1);
+    private static final AtomicInteger MONTHS = new AtomicInteger();
+
+    HttpProtocolBuilder httpProtocol = http
+            .baseUrl(BASE_URL)
+            .acceptHeader("application/json")
+            .contentTypeHeader("application/json");
+
+    private static String petIdsJson() {
+        if (PET_IDS.contains("-")) {
+            String[] range = PET_IDS.split("-");
+            StringBuilder ids = new StringBuilder();
+            for (long id = Long.parseLong(range[0]); id <= Long.parseLong(range[1]); id++) {
+                ids.append(ids.isEmpty() ? "" : ",").append(id);
+            }
+            return ids.toString();
+        }
+        return PET_IDS;
+    }
+
+    private static String batchBody(LocalDate start) {
+        StringBuilder windows = new StringBuilder();
+        for (String[] window : WINDOWS) {
+            windows.append(windows.isEmpty() ? "" : ",")
+                    .append("{\"start\":\"").append(window[0]).append("\",\"end\":\"").append(window[1]).append("\"}");
+        }
+        return "{\"petIds\":[" + petIdsJson() + "],\"allPets\":false,"
+                + "\"startDate\":\"" + start + "\",\"endDate\":\"" + start.plusDays(DAYS - 1) + "\","
+                + "\"timeWindows\":[" + windows + "]}";
+    }
+
+    private ScenarioBuilder batch(String name, boolean fresh) {
+        return scenario(name)
+                .exec(session -> session.set("body",
+                        batchBody(fresh ? FIRST_DAY.plusDays((long) DAYS * MONTHS.getAndIncrement()) : FIRST_DAY)))
+                .exec(http("POST /reservations/slots/batch (" + name + ")")
+                        .post("/reservations/slots/batch")
+                        .header("Authorization", "Bearer " + TOKEN)
+                        .body(StringBody("#{body}"))
+                        .check(status().is(201))
+                        .check(header("X-Slots-Created").saveAs("created"))
+                        .check(header("X-Slots-Skipped").saveAs("skipped")))
+                .exec(session -> {
+                    System.out.println(name + ": created=" + session.getString("created")
+                            + " skipped=" + session.getString("skipped"));
+                    return session;
+                });
+    }
+
+    {
+        if (TOKEN == null) {
+            throw new IllegalStateException("Missing -Dslots.token for a SHELTER or ADMIN login");
+        }
+
+        // the first fresh request claims FIRST_DAY's month, which the repeat requests then send again
+        setUp(batch("fresh", true).injectOpen(rampUsers(REQUESTS).during(REQUESTS))
+                .andThen(batch("repeat", false).injectOpen(rampUsers(REQUESTS).during(REQUESTS))))
+                .protocols(httpProtocol)
+                .assertions(global().successfulRequests().percent().is(100.0));
+    }
+}
@@ -0,0 +1,21 @@
+-- Rooms for ChatRoomsSimulation: shelter logins loadtest-shelter-10, -100 and -1000 own that many rooms,
+-- each with a few messages and unread counters already maintained.
+-- psql "$PETIFY_DB_URL" -f chat-rooms.sql
+DELETE FROM chat_message WHERE room_id IN (SELECT id FROM chat_room WHERE shelter_name LIKE 'loadtest-shelter-%');
+DELETE FROM chat_room WHERE shelter_name LIKE 'loadtest-shelter-%';
+
+INSERT INTO chat_room (pet_id, user_name, shelter_name, user_visible, shelter_visible,
+                       last_message_timestamp, user_unread_count, shelter_unread_count)
+SELECT 900000000 + rooms.n * 10000 + g, 'loadtest-user-' || rooms.n || '-' || g, 'loadtest-shelter-' || rooms.n,
+       true, true, now() - (g || ' minutes')::interval, 0, 3
+FROM (VALUES (10), (100), (1000)) AS rooms(n)
+CROSS JOIN LATERAL generate_series(1, rooms.n) AS g;
+
+INSERT INTO chat_message (room_id, sender, content, timestamp)
+SELECT r.id, r.user_name, 'Hello, is this pet still available? #' || i, r.last_message_timestamp - ((3 - i) || ' seconds')::interval
+FROM chat_room r
+CROSS JOIN generate_series(1, 3) AS i
+WHERE r.shelter_name LIKE 'loadtest-shelter-%';
+
+ANALYZE chat_room;
+ANALYZE chat_message;
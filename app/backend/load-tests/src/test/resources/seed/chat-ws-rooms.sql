@@ -0,0 +1,12 @@
+-- Rooms for ChatWebSocketSimulation: room n is between loadtest-ws-user-n and loadtest-ws-shelter-n.
+-- Both logins are registered by the simulation itself, the rooms only have to exist.
+-- psql "$PETIFY_DB_URL" -v rooms=1000 -f chat-ws-rooms.sql
+DELETE FROM chat_message WHERE room_id IN (SELECT id FROM chat_room WHERE shelter_name LIKE 'loadtest-ws-shelter-%');
+DELETE FROM chat_room WHERE shelter_name LIKE 'loadtest-ws-shelter-%';
+
+INSERT INTO chat_room (pet_id, user_name, shelter_name, user_visible, shelter_visible,
+                       user_unread_count, shelter_unread_count)
+SELECT 910000000 + g, 'loadtest-ws-user-' || g, 'loadtest-ws-shelter-' || g, true, true, 0, 0
+FROM generate_series(1, :rooms) AS g;
+
+ANALYZE chat_room;
@@ -4,12 +4,14 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 
 @SpringBootApplication
 @EnableDiscoveryClient
 @EnableMethodSecurity
 @EnableFeignClients(basePackages = "org.petify")
+@EnableScheduling
 public class ReservationsApplication {
     public static void main(String[] args) {
         SpringApplication.run(ReservationsApplication.class, args);
@@ -0,0 +1,166 @@
+package org.petify.reservations.cache;
+
+import org.petify.reservations.client.PetClient;
+import org.petify.reservations.dto.PetIdPageResponse;
+import org.petify.reservations.dto.PetStatusBatchRequest;
+import org.petify.reservations.dto.PetStatusResponse;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Local copy of which pets exist and which of them are archived, kept as two bitmaps of pet ids.
+ *
+ * <p>It is reloaded from shelter-service periodically. Ids it does not know yet, such as pets created since the
+ * last reload, are asked for remotely and added. Known pets are answered locally, including while shelter-service
+ * is down, so an archive made in the meantime is seen at the next reload. Writes that must not act on a stale flag
+ * use {@link #getCurrentArchivedFlag}, which asks shelter-service first.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PetStatusReplica {
+
+    // page size of /pets/ids/page and the most ids POST /pets/status:batch accepts
+    private static final int PAGE_SIZE = 1000;
+
+    private final PetClient petClient;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Roaring64Bitmap knownPets = new Roaring64Bitmap();
+    private Roaring64Bitmap archivedPets = new Roaring64Bitmap();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduledReload();
+    }
+
+    @Scheduled(fixedDelayString = "${petify.reservations.pet-replica.reload-interval-ms:300000}",
+            initialDelayString = "${petify.reservations.pet-replica.reload-interval-ms:300000}")
+    public void scheduledReload() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.warn("Could not reload pet status replica, keeping the previous one: {}", e.getMessage());
+        }
+    }
+
+    public void reload() {
+        Roaring64Bitmap known = new Roaring64Bitmap();
+        Roaring64Bitmap archived = new Roaring64Bitmap();
+
+        Long cursor = null;
+        do {
+            PetIdPageResponse page = petClient.getPetIdsPage(cursor, PAGE_SIZE);
+            if (!page.ids().isEmpty()) {
+                petClient.getPetStatuses(new PetStatusBatchRequest(page.ids()))
+                        .forEach(status -> add(known, archived, status.id(), status.archived()));
+            }
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        lock.writeLock().lock();
+        try {
+            knownPets = known;
+            archivedPets = archived;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Reloaded pet status replica with {} pets, {} archived",
+                known.getLongCardinality(), archived.getLongCardinality());
+    }
+
+    /**
+     * Archived flag of each given pet; ids shelter-service does not know are missing from the result.
+     * Only the ids missing from the replica cost a remote call.
+     */
+    public Map<Long, Boolean> getArchivedFlags(Collection<Long> petIds) {
+        Map<Long, Boolean> flags = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            for (Long petId : petIds) {
+                if (knownPets.contains(petId)) {
+                    flags.put(petId, archivedPets.contains(petId));
+                } else if (!flags.containsKey(petId)) {
+                    misses.add(petId);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (!misses.isEmpty()) {
+            Map<Long, Boolean> fetched = fetchArchivedFlags(misses.stream().distinct().toList());
+            lock.writeLock().lock();
+            try {
+                fetched.forEach((petId, archived) -> add(knownPets, archivedPets, petId, archived));
+            } finally {
+                lock.writeLock().unlock();
+            }
+            flags.putAll(fetched);
+        }
+        return flags;
+    }
+
+    /**
+     * Archived flag of one pet as shelter-service reports it now, or null when it does not know the pet. The answer
+     * refreshes the replica. Only when shelter-service cannot be reached is the replica answered instead.
+     */
+    public Boolean getCurrentArchivedFlag(Long petId) {
+        Map<Long, Boolean> fetched;
+        try {
+            fetched = fetchArchivedFlags(List.of(petId));
+        } catch (RuntimeException e) {
+            log.warn("Could not fetch the status of pet {}, using the replica: {}", petId, e.getMessage());
+            return getArchivedFlags(List.of(petId)).get(petId);
+        }
+
+        Boolean archived = fetched.get(petId);
+        lock.writeLock().lock();
+        try {
+            if (archived != null) {
+                add(knownPets, archivedPets, petId, archived);
+            } else {
+                knownPets.removeLong(petId);
+                archivedPets.removeLong(petId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return archived;
+    }
+
+    private Map<Long, Boolean> fetchArchivedFlags(List<Long> petIds) {
+        Map<Long, Boolean> flags = new HashMap<>();
+        for (int from = 0; from < petIds.size(); from += PAGE_SIZE) {
+            List<Long> chunk = petIds.subList(from, Math.min(from + PAGE_SIZE, petIds.size()));
+            for (PetStatusResponse status : petClient.getPetStatuses(new PetStatusBatchRequest(chunk))) {
+                flags.put(status.id(), status.archived());
+            }
+        }
+        return flags;
+    }
+
+    private static void add(Roaring64Bitmap known, Roaring64Bitmap archived, long petId, boolean isArchived) {
+        known.addLong(petId);
+        if (isArchived) {
+            archived.addLong(petId);
+        } else {
+            archived.removeLong(petId);
+        }
+    }
+}
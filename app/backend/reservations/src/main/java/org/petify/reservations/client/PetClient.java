@@ -1,10 +1,16 @@
 package org.petify.reservations.client;
 
 import org.petify.reservations.config.FeignConfig;
+import org.petify.reservations.dto.PetIdPageResponse;
+import org.petify.reservations.dto.PetStatusBatchRequest;
+import org.petify.reservations.dto.PetStatusResponse;
 
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
 
@@ -14,6 +20,11 @@ public interface PetClient {
     @GetMapping("/pets/ids")
     List<Long> getAllPetIds();
 
+    // pass nextCursor back as cursor until it is null
+    @GetMapping("/pets/ids/page")
+    PetIdPageResponse getPetIdsPage(@RequestParam(value = "cursor", required = false) Long cursor,
+                                    @RequestParam("size") int size);
+
     @GetMapping("/shelters/{petId}/owner")
     String getOwnerByPetId(@PathVariable("petId") Long petId);
 
@@ -25,4 +36,8 @@ public interface PetClient {
 
     @GetMapping("/pets/{petId}/archived")
     Boolean isPetArchived(@PathVariable Long petId);
+
+    // at most 1000 ids per call, unknown ids are missing from the result
+    @PostMapping("/pets/status:batch")
+    List<PetStatusResponse> getPetStatuses(@RequestBody PetStatusBatchRequest request);
 }
@@ -0,0 +1,38 @@
+package org.petify.reservations.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the GiST index over each live slot's tsrange(start_time, end_time), which ddl-auto cannot express.
+ * The calendar and overlap queries repeat its expression and predicate so the planner can use it.
+ *
+ * <p>The index does not enforce anything: overlaps are rejected by checks in {@code ReservationService} and the
+ * batch insert, which take a per-pet advisory lock first so that concurrent writes for a pet cannot both pass.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SlotPeriodIndexInitializer {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndex() {
+        try {
+            // btree_gist lets pet_id share the GiST index with the range
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_reservation_slot_pet_period ON reservation_slots "
+                    + "USING gist (pet_id, tsrange(start_time, end_time)) WHERE status <> 'CANCELLED'");
+        } catch (DataAccessException e) {
+            log.warn("Could not create pet/period GiST index, indexing the period alone: {}", e.getMessage());
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_reservation_slot_period ON reservation_slots "
+                    + "USING gist (tsrange(start_time, end_time)) WHERE status <> 'CANCELLED'");
+        }
+    }
+}
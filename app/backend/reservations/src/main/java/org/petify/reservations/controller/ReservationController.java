@@ -1,12 +1,17 @@
 package org.petify.reservations.controller;
 
+import org.petify.reservations.dto.CalendarDayResponse;
 import org.petify.reservations.dto.SlotBatchRequest;
+import org.petify.reservations.dto.SlotBatchResult;
+import org.petify.reservations.dto.SlotPageResponse;
 import org.petify.reservations.dto.SlotRequest;
 import org.petify.reservations.dto.SlotResponse;
 import org.petify.reservations.service.ReservationService;
+import org.petify.reservations.service.SlotCalendarService;
 
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -19,8 +24,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -29,6 +37,7 @@ import java.util.List;
 public class ReservationController {
 
     private final ReservationService reservationService;
+    private final SlotCalendarService slotCalendarService;
 
     @PostMapping("/slots")
     @PreAuthorize("hasAnyRole('ADMIN', 'SHELTER')")
@@ -40,8 +49,11 @@ public class ReservationController {
     @PostMapping("/slots/batch")
     @PreAuthorize("hasAnyRole('ADMIN', 'SHELTER')")
     public ResponseEntity<List<SlotResponse>> createBatch(@Valid @RequestBody SlotBatchRequest req) {
-        List<SlotResponse> created = reservationService.createBatchSlots(req);
-        return new ResponseEntity<>(created, HttpStatus.CREATED);
+        SlotBatchResult result = reservationService.createBatchSlots(req);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header("X-Slots-Created", String.valueOf(result.created().size()))
+                .header("X-Slots-Skipped", String.valueOf(result.skipped()))
+                .body(result.created());
     }
 
     @DeleteMapping("/slots/{slotId}")
@@ -58,24 +70,67 @@ public class ReservationController {
         return ResponseEntity.noContent().build();
     }
 
+    // loads every slot ever created, prefer /slots/page
     @GetMapping("/slots")
     @PreAuthorize("hasAnyRole('ADMIN', 'SHELTER')")
     public ResponseEntity<List<SlotResponse>> getAllSlots() {
         return ResponseEntity.ok(reservationService.getAllSlots());
     }
 
+    @GetMapping("/slots/page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SHELTER')")
+    public ResponseEntity<SlotPageResponse> getSlotsPage(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size
+    ) {
+        return ResponseEntity.ok(reservationService.getSlotsPage(from, to, cursor, size));
+    }
+
     @GetMapping("/slots/available")
     @PreAuthorize("hasAnyRole('ADMIN', 'VOLUNTEER')")
     public ResponseEntity<List<SlotResponse>> getAvailableSlots() {
         return ResponseEntity.ok(reservationService.getAvailableSlots());
     }
 
+    @GetMapping("/slots/available/page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'VOLUNTEER')")
+    public ResponseEntity<SlotPageResponse> getAvailableSlotsPage(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size
+    ) {
+        return ResponseEntity.ok(reservationService.getAvailableSlotsPage(from, to, cursor, size));
+    }
+
     @GetMapping("/slots/pet/{petId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'SHELTER', 'VOLUNTEER')")
     public ResponseEntity<List<SlotResponse>> getSlotsByPet(@PathVariable Long petId) {
         return ResponseEntity.ok(reservationService.getSlotsByPetId(petId));
     }
 
+    @GetMapping("/calendar/pet/{petId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SHELTER', 'VOLUNTEER')")
+    public ResponseEntity<List<CalendarDayResponse>> getPetCalendar(
+            @PathVariable Long petId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return ResponseEntity.ok(slotCalendarService.getPetCalendar(petId, from, to));
+    }
+
+    @GetMapping("/calendar/shelter/{shelterId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SHELTER', 'VOLUNTEER')")
+    public ResponseEntity<List<CalendarDayResponse>> getShelterCalendar(
+            @PathVariable Long shelterId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return ResponseEntity.ok(slotCalendarService.getShelterCalendar(shelterId, from, to));
+    }
+
     @GetMapping("/slots/user/{username}")
     @PreAuthorize("hasAnyRole('ADMIN', 'SHELTER')")
     public ResponseEntity<List<SlotResponse>> getSlotsByUser(@PathVariable String username) {
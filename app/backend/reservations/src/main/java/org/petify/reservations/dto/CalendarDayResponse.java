@@ -0,0 +1,11 @@
+package org.petify.reservations.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record CalendarDayResponse(
+        LocalDate date,
+        int free,
+        int booked,
+        List<CalendarIntervalResponse> intervals
+) {}
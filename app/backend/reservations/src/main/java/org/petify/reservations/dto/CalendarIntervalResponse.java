@@ -0,0 +1,11 @@
+package org.petify.reservations.dto;
+
+import java.time.LocalDateTime;
+
+public record CalendarIntervalResponse(
+        Long slotId,
+        Long petId,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        boolean booked
+) {}
@@ -0,0 +1,8 @@
+package org.petify.reservations.dto;
+
+import java.util.List;
+
+public record PetIdPageResponse(
+        List<Long> ids,
+        Long nextCursor
+) {}
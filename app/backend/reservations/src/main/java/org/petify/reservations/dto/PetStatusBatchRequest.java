@@ -0,0 +1,7 @@
+package org.petify.reservations.dto;
+
+import java.util.Collection;
+
+public record PetStatusBatchRequest(
+        Collection<Long> petIds
+) {}
@@ -0,0 +1,9 @@
+package org.petify.reservations.dto;
+
+public record PetStatusResponse(
+        Long id,
+        Long shelterId,
+        String ownerUsername,
+        boolean archived,
+        boolean shelterActive
+) {}
@@ -0,0 +1,5 @@
+package org.petify.reservations.dto;
+
+import java.util.List;
+
+public record SlotBatchResult(List<SlotResponse> created, int skipped) {}
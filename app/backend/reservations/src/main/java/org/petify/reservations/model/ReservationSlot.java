@@ -7,6 +7,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
@@ -28,6 +29,10 @@ import java.time.LocalDateTime;
 @Table(name = "reservation_slots",
         uniqueConstraints = {
                 @UniqueConstraint(columnNames = {"pet_id", "start_time", "end_time"})
+        },
+        indexes = {
+                @Index(name = "idx_reservation_slot_status_start", columnList = "status, start_time, id"),
+                @Index(name = "idx_reservation_slot_start", columnList = "start_time, id")
         })
 public class ReservationSlot {
     @Id
@@ -0,0 +1,25 @@
+package org.petify.reservations.repository;
+
+import org.petify.reservations.model.ReservationSlot;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface SlotBatchRepository {
+
+    /**
+     * Inserts an available slot for every pet in every window in one statement, skipping the combinations
+     * that already have a slot or overlap a live one, and returns only the slots it created.
+     */
+    List<ReservationSlot> insertAvailableSlots(Collection<Long> petIds, List<SlotWindow> windows);
+
+    /**
+     * Takes a transaction-scoped advisory lock per pet, in id order, so that concurrent overlap checks and the
+     * writes that follow them run one after another for the same pet.
+     */
+    void lockPets(Collection<Long> petIds);
+
+    record SlotWindow(LocalDateTime start, LocalDateTime end) {
+    }
+}
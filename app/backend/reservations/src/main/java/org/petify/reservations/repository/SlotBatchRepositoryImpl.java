@@ -0,0 +1,72 @@
+package org.petify.reservations.repository;
+
+import org.petify.reservations.model.ReservationSlot;
+import org.petify.reservations.model.ReservationStatus;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+class SlotBatchRepositoryImpl implements SlotBatchRepository {
+
+    // pets and windows travel as three arrays, Postgres builds the cross product and drops the combinations
+    // overlapping a live slot of the same pet
+    private static final String INSERT_AVAILABLE = "INSERT INTO reservation_slots (pet_id, start_time, end_time, status) "
+            + "SELECT p.pet_id, w.start_time, w.end_time, 'AVAILABLE' "
+            + "FROM unnest(?::bigint[]) AS p(pet_id) "
+            + "CROSS JOIN unnest(?::timestamp[], ?::timestamp[]) AS w(start_time, end_time) "
+            + "WHERE NOT EXISTS (SELECT 1 FROM reservation_slots s WHERE s.pet_id = p.pet_id AND s.status <> 'CANCELLED' "
+            + "AND tsrange(s.start_time, s.end_time) && tsrange(w.start_time, w.end_time)) "
+            + "ON CONFLICT (pet_id, start_time, end_time) DO NOTHING "
+            + "RETURNING id, pet_id, start_time, end_time, status, reserved_by";
+
+    // ordered so that two callers locking overlapping sets of pets cannot deadlock
+    private static final String LOCK_PETS = "SELECT pg_advisory_xact_lock(p.pet_id) "
+            + "FROM unnest(?::bigint[]) AS p(pet_id) ORDER BY p.pet_id";
+
+    private static final RowMapper<ReservationSlot> SLOT_MAPPER = (rs, rowNum) -> new ReservationSlot(
+            rs.getLong("id"),
+            rs.getLong("pet_id"),
+            rs.getTimestamp("start_time").toLocalDateTime(),
+            rs.getTimestamp("end_time").toLocalDateTime(),
+            ReservationStatus.valueOf(rs.getString("status")),
+            rs.getString("reserved_by"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<ReservationSlot> insertAvailableSlots(Collection<Long> petIds, List<SlotWindow> windows) {
+        if (petIds.isEmpty() || windows.isEmpty()) {
+            return List.of();
+        }
+        Timestamp[] starts = windows.stream().map(w -> Timestamp.valueOf(w.start())).toArray(Timestamp[]::new);
+        Timestamp[] ends = windows.stream().map(w -> Timestamp.valueOf(w.end())).toArray(Timestamp[]::new);
+
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_AVAILABLE);
+            ps.setArray(1, connection.createArrayOf("bigint", petIds.toArray(Long[]::new)));
+            ps.setArray(2, connection.createArrayOf("timestamp", starts));
+            ps.setArray(3, connection.createArrayOf("timestamp", ends));
+            return ps;
+        }, SLOT_MAPPER);
+    }
+
+    @Override
+    public void lockPets(Collection<Long> petIds) {
+        if (petIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(LOCK_PETS);
+            ps.setArray(1, connection.createArrayOf("bigint", petIds.toArray(Long[]::new)));
+            return ps;
+        }, rs -> {
+        });
+    }
+}
@@ -1,20 +1,75 @@
 package org.petify.reservations.repository;
 
 import org.petify.reservations.model.ReservationSlot;
+import org.petify.reservations.model.ReservationStatus;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface SlotRepository extends JpaRepository<ReservationSlot, Long> {
+public interface SlotRepository extends JpaRepository<ReservationSlot, Long>, SlotBatchRepository {
     boolean existsByPetIdAndStartTimeAndEndTime(Long petId,
                                                 LocalDateTime start,
                                                 LocalDateTime end);
 
-    List<ReservationSlot> findByPetId(Long petId);
+    List<ReservationSlot> findByPetIdOrderByStartTimeAscIdAsc(Long petId);
 
     List<ReservationSlot> findByReservedBy(String username);
+
+    // the range expression and status predicate match idx_reservation_slot_pet_period
+    @Query(value = "SELECT * FROM reservation_slots WHERE pet_id IN (:petIds) AND status <> 'CANCELLED' "
+            + "AND tsrange(start_time, end_time) && tsrange(:from, :to) ORDER BY start_time, pet_id, id",
+            nativeQuery = true)
+    List<ReservationSlot> findLiveOverlapping(@Param("petIds") Collection<Long> petIds,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM reservation_slots WHERE pet_id = :petId AND status <> 'CANCELLED' "
+            + "AND tsrange(start_time, end_time) && tsrange(:start, :end))", nativeQuery = true)
+    boolean existsLiveOverlapping(@Param("petId") Long petId,
+                                  @Param("start") LocalDateTime start,
+                                  @Param("end") LocalDateTime end);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM reservation_slots WHERE pet_id = :petId AND status <> 'CANCELLED' "
+            + "AND id <> :slotId AND tsrange(start_time, end_time) && tsrange(:start, :end))", nativeQuery = true)
+    boolean existsLiveOverlappingOtherThan(@Param("slotId") Long slotId,
+                                           @Param("petId") Long petId,
+                                           @Param("start") LocalDateTime start,
+                                           @Param("end") LocalDateTime end);
+
+    // only one of any number of concurrent callers sees 1
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE ReservationSlot s SET s.status = org.petify.reservations.model.ReservationStatus.RESERVED, "
+            + "s.reservedBy = :username "
+            + "WHERE s.id = :id AND s.status = org.petify.reservations.model.ReservationStatus.AVAILABLE")
+    int reserveIfAvailable(@Param("id") Long id, @Param("username") String username);
+
+    List<ReservationSlot> findByStatusAndStartTimeGreaterThanEqualOrderByStartTimeAscIdAsc(ReservationStatus status,
+                                                                                          LocalDateTime from);
+
+    // keyset pages ordered by (start_time, id); the first page starts after (from, 0)
+    @Query("SELECT s FROM ReservationSlot s WHERE s.status = :status AND s.startTime < :to "
+            + "AND (s.startTime > :afterStart OR (s.startTime = :afterStart AND s.id > :afterId)) "
+            + "ORDER BY s.startTime, s.id")
+    List<ReservationSlot> findPageByStatus(@Param("status") ReservationStatus status,
+                                           @Param("to") LocalDateTime to,
+                                           @Param("afterStart") LocalDateTime afterStart,
+                                           @Param("afterId") Long afterId,
+                                           Limit limit);
+
+    @Query("SELECT s FROM ReservationSlot s WHERE s.startTime < :to "
+            + "AND (s.startTime > :afterStart OR (s.startTime = :afterStart AND s.id > :afterId)) "
+            + "ORDER BY s.startTime, s.id")
+    List<ReservationSlot> findPage(@Param("to") LocalDateTime to,
+                                   @Param("afterStart") LocalDateTime afterStart,
+                                   @Param("afterId") Long afterId,
+                                   Limit limit);
 }
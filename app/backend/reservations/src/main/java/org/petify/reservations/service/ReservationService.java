@@ -1,7 +1,10 @@
 package org.petify.reservations.service;
 
+import org.petify.reservations.cache.PetStatusReplica;
 import org.petify.reservations.client.PetClient;
 import org.petify.reservations.dto.SlotBatchRequest;
+import org.petify.reservations.dto.SlotBatchResult;
+import org.petify.reservations.dto.SlotPageResponse;
 import org.petify.reservations.dto.SlotRequest;
 import org.petify.reservations.dto.SlotResponse;
 import org.petify.reservations.dto.TimeWindowRequest;
@@ -14,10 +17,12 @@ import org.petify.reservations.exception.SlotNotFoundException;
 import org.petify.reservations.exception.UnauthorizedOperationException;
 import org.petify.reservations.model.ReservationSlot;
 import org.petify.reservations.model.ReservationStatus;
+import org.petify.reservations.repository.SlotBatchRepository.SlotWindow;
 import org.petify.reservations.repository.SlotRepository;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
@@ -25,7 +30,12 @@ import org.springframework.util.CollectionUtils;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -33,20 +43,33 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ReservationService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    // upper bound of a slot page when the caller gives no end of the range
+    private static final LocalDateTime OPEN_END = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     private final SlotRepository repo;
     private final PetClient petClient;
+    private final PetStatusReplica petStatusReplica;
 
     public SlotResponse createSlot(SlotRequest r) {
         validateSlotRequest(r);
-        validatePetExistence(r.petId());
-        validatePetNotArchived(r.petId());
+        Boolean archived = currentArchivedFlag(r.petId());
+        validatePetExistence(r.petId(), archived);
+        validatePetNotArchived(r.petId(), archived);
 
+        repo.lockPets(List.of(r.petId()));
         if (repo.existsByPetIdAndStartTimeAndEndTime(r.petId(), r.startTime(), r.endTime())) {
             throw new SlotAlreadyExistsException(
                     String.format("Slot already exists for pet %d at %s - %s",
                             r.petId(), r.startTime(), r.endTime()));
         }
 
+        if (repo.existsLiveOverlapping(r.petId(), r.startTime(), r.endTime())) {
+            throw new SlotAlreadyExistsException(
+                    String.format("Slot for pet %d at %s - %s overlaps an existing slot",
+                            r.petId(), r.startTime(), r.endTime()));
+        }
+
         ReservationSlot slot = new ReservationSlot(
                 null,
                 r.petId(),
@@ -84,48 +107,79 @@ public class ReservationService {
         ReservationSlot slot = repo.findById(slotId)
                 .orElseThrow(() -> new SlotNotFoundException("Slot with ID " + slotId + " not found"));
 
-        validatePetNotArchived(slot.getPetId());
-
         if (slot.getStatus() != ReservationStatus.AVAILABLE) {
             throw new SlotNotAvailableException("Slot is not available for reservation");
         }
 
+        validatePetNotArchived(slot.getPetId(), currentArchivedFlag(slot.getPetId()));
+
+        // the status check above is only a fast path, the conditional update decides between concurrent reservers
+        if (repo.reserveIfAvailable(slotId, username) == 0) {
+            throw new SlotNotAvailableException("Slot is not available for reservation");
+        }
+
         slot.setReservedBy(username);
         slot.setStatus(ReservationStatus.RESERVED);
 
         log.info("User {} reserved slot {}", username, slotId);
-        return mapToResponse(repo.save(slot));
+        return mapToResponse(slot);
     }
 
+    // loads every slot ever created, prefer getSlotsPage
     public List<SlotResponse> getAllSlots() {
-        return repo.findAll()
-                .stream()
-                .filter(slot -> {
-                    try {
-                        return !petClient.isPetArchived(slot.getPetId());
-                    } catch (Exception e) {
-                        log.warn("Could not check archive status for pet {}. Including slot.", slot.getPetId());
-                        return true;
-                    }
-                })
-                .map(this::mapToResponse)
-                .toList();
+        return withoutArchivedPets(repo.findAll());
     }
 
     public List<SlotResponse> getAvailableSlots() {
-        return repo.findAll()
-                .stream()
-                .filter(slot -> slot.getStatus() == ReservationStatus.AVAILABLE)
-                .filter(slot -> {
-                    try {
-                        return !petClient.isPetArchived(slot.getPetId());
-                    } catch (Exception e) {
-                        log.warn("Could not check archive status for pet {}. Including slot.", slot.getPetId());
-                        return true;
-                    }
-                })
-                .map(this::mapToResponse)
-                .toList();
+        return withoutArchivedPets(repo.findByStatusAndStartTimeGreaterThanEqualOrderByStartTimeAscIdAsc(
+                ReservationStatus.AVAILABLE, LocalDateTime.now()));
+    }
+
+    public SlotPageResponse getSlotsPage(LocalDateTime from, LocalDateTime to, String cursor, int size) {
+        return slotsPage(null, from, to, cursor, size);
+    }
+
+    public SlotPageResponse getAvailableSlotsPage(LocalDateTime from, LocalDateTime to, String cursor, int size) {
+        LocalDateTime now = LocalDateTime.now();
+        return slotsPage(ReservationStatus.AVAILABLE, from == null || from.isBefore(now) ? now : from, to, cursor, size);
+    }
+
+    private SlotPageResponse slotsPage(ReservationStatus status, LocalDateTime from, LocalDateTime to,
+                                       String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        LocalDateTime start = from != null ? from : LocalDateTime.now();
+        LocalDateTime end = to != null ? to : OPEN_END;
+        if (!start.isBefore(end)) {
+            throw new InvalidTimeRangeException("from must be before to");
+        }
+
+        LocalDateTime afterStart = start;
+        long afterId = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            int separator = cursor.lastIndexOf('_');
+            try {
+                afterStart = LocalDateTime.parse(cursor.substring(0, separator));
+                afterId = Long.parseLong(cursor.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+            }
+        }
+
+        // one extra row tells whether another page follows
+        Limit limit = Limit.of(size + 1);
+        List<ReservationSlot> slots = status == null
+                ? repo.findPage(end, afterStart, afterId, limit)
+                : repo.findPageByStatus(status, end, afterStart, afterId, limit);
+
+        String nextCursor = null;
+        if (slots.size() > size) {
+            slots = slots.subList(0, size);
+            ReservationSlot last = slots.get(size - 1);
+            nextCursor = last.getStartTime() + "_" + last.getId();
+        }
+        return new SlotPageResponse(withoutArchivedPets(slots), nextCursor);
     }
 
     public SlotResponse cancelReservation(Long slotId, String username, List<String> roles) {
@@ -166,15 +220,14 @@ public class ReservationService {
         validatePetId(petId);
 
         try {
-            boolean isArchived = petClient.isPetArchived(petId);
-            if (isArchived) {
+            if (Boolean.TRUE.equals(petStatusReplica.getArchivedFlags(List.of(petId)).get(petId))) {
                 return List.of();
             }
         } catch (Exception e) {
             log.warn("Could not check archive status for pet {}. Returning slots anyway.", petId);
         }
 
-        return repo.findByPetId(petId)
+        return repo.findByPetIdOrderByStartTimeAscIdAsc(petId)
                 .stream()
                 .map(this::mapToResponse)
                 .toList();
@@ -189,10 +242,11 @@ public class ReservationService {
                 .toList();
     }
 
-    public List<SlotResponse> createBatchSlots(SlotBatchRequest r) {
+    public SlotBatchResult createBatchSlots(SlotBatchRequest r) {
         validateBatchRequest(r);
 
         List<Long> targetPetIds;
+        Map<Long, Boolean> archivedFlags;
         try {
             if (r.allPets()) {
                 try {
@@ -205,50 +259,41 @@ public class ReservationService {
                 targetPetIds = r.petIds();
             }
 
-            targetPetIds = filterArchivedPets(targetPetIds);
+            archivedFlags = petStatusReplica.getArchivedFlags(targetPetIds);
 
         } catch (Exception e) {
             log.error("Failed to fetch pet IDs from pet service", e);
             throw new PetServiceUnavailableException("Unable to fetch pet information. Please try again later.");
         }
 
-        if (CollectionUtils.isEmpty(targetPetIds)) {
+        List<Long> activePetIds = filterArchivedPets(targetPetIds, archivedFlags);
+        if (CollectionUtils.isEmpty(activePetIds)) {
             throw new InvalidTimeRangeException("No valid pet IDs found for slot creation");
         }
 
         if (!r.allPets()) {
-            List<Long> existingPetIds = petClient.getAllPetIds();
             for (Long petId : r.petIds()) {
-                if (!existingPetIds.contains(petId)) {
+                if (!archivedFlags.containsKey(petId)) {
                     throw new PetNotFoundException("Pet with ID " + petId + " not found");
                 }
             }
         }
+        Set<Long> petIds = new LinkedHashSet<>(activePetIds);
 
-        List<ReservationSlot> slotsToSave = new ArrayList<>();
-        int skippedCount = 0;
-
+        List<SlotWindow> windows = new ArrayList<>();
         for (LocalDate d = r.startDate(); !d.isAfter(r.endDate()); d = d.plusDays(1)) {
             for (TimeWindowRequest w : r.timeWindows()) {
-                LocalDateTime start = d.atTime(w.start());
-                LocalDateTime end = d.atTime(w.end());
-
-                for (Long petId : targetPetIds) {
-                    if (repo.existsByPetIdAndStartTimeAndEndTime(petId, start, end)) {
-                        skippedCount++;
-                        continue;
-                    }
-
-                    slotsToSave.add(new ReservationSlot(
-                            petId, start, end, ReservationStatus.AVAILABLE, null));
-                }
+                windows.add(new SlotWindow(d.atTime(w.start()), d.atTime(w.end())));
             }
         }
 
-        log.info("Creating {} slots in batch, skipped {} existing slots", slotsToSave.size(), skippedCount);
-        return repo.saveAll(slotsToSave).stream()
-                .map(this::mapToResponse)
-                .toList();
+        // existing slots are skipped by the insert itself instead of one existence query per combination
+        repo.lockPets(petIds);
+        List<ReservationSlot> created = repo.insertAvailableSlots(petIds, windows);
+        int skippedCount = petIds.size() * windows.size() - created.size();
+
+        log.info("Created {} slots in batch, skipped {} existing slots", created.size(), skippedCount);
+        return new SlotBatchResult(created.stream().map(this::mapToResponse).toList(), skippedCount);
     }
 
     public SlotResponse reactivateCancelledSlot(Long slotId, List<String> roles) {
@@ -261,6 +306,15 @@ public class ReservationService {
             throw new SlotNotAvailableException("Slot is not currently cancelled");
         }
 
+        // a live slot may have been created over this period since the cancellation
+        repo.lockPets(List.of(slot.getPetId()));
+        if (repo.existsLiveOverlappingOtherThan(slot.getId(), slot.getPetId(), slot.getStartTime(),
+                slot.getEndTime())) {
+            throw new SlotAlreadyExistsException(
+                    String.format("Slot %d for pet %d at %s - %s overlaps a live slot",
+                            slot.getId(), slot.getPetId(), slot.getStartTime(), slot.getEndTime()));
+        }
+
         slot.setStatus(ReservationStatus.AVAILABLE);
         slot.setReservedBy(null);
         return mapToResponse(repo.save(slot));
@@ -290,6 +344,15 @@ public class ReservationService {
                 throw new InvalidTimeRangeException("Time window start must be before end time");
             }
         }
+
+        List<TimeWindowRequest> sorted = r.timeWindows().stream()
+                .sorted(Comparator.comparing(TimeWindowRequest::start))
+                .toList();
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i).start().isBefore(sorted.get(i - 1).end())) {
+                throw new InvalidTimeRangeException("Time windows must not overlap");
+            }
+        }
     }
 
     private void validateSlotId(Long slotId) {
@@ -304,9 +367,19 @@ public class ReservationService {
         }
     }
 
-    private void validatePetExistence(Long petId) {
-        List<Long> existingPetIds = petClient.getAllPetIds();
-        if (!existingPetIds.contains(petId)) {
+    // asks shelter-service rather than the replica, so slots are not created or reserved for a pet archived
+    // since the last reload
+    private Boolean currentArchivedFlag(Long petId) {
+        try {
+            return petStatusReplica.getCurrentArchivedFlag(petId);
+        } catch (Exception e) {
+            log.error("Could not verify pet archive status for petId {}. Error: {}", petId, e.getMessage());
+            throw new PetServiceUnavailableException("Unable to verify pet status");
+        }
+    }
+
+    private void validatePetExistence(Long petId, Boolean archived) {
+        if (archived == null) {
             throw new PetNotFoundException("Pet with ID " + petId + " not found");
         }
     }
@@ -317,31 +390,23 @@ public class ReservationService {
         }
     }
 
-    private void validatePetNotArchived(Long petId) {
-        try {
-            boolean isArchived = petClient.isPetArchived(petId);
-            if (isArchived) {
-                throw new IllegalArgumentException("Cannot create slots for archived pet with ID " + petId);
-            }
-        } catch (Exception e) {
-            log.error("Could not verify pet archive status for petId {}. Error: {}", petId, e.getMessage());
-            throw new PetServiceUnavailableException("Unable to verify pet status");
+    private void validatePetNotArchived(Long petId, Boolean archived) {
+        if (Boolean.TRUE.equals(archived)) {
+            throw new IllegalArgumentException("Cannot create slots for archived pet with ID " + petId);
         }
     }
 
-    private List<Long> filterArchivedPets(List<Long> petIds) {
+    private List<Long> filterArchivedPets(List<Long> petIds, Map<Long, Boolean> archivedFlags) {
         List<Long> activePetIds = new ArrayList<>();
 
         for (Long petId : petIds) {
-            try {
-                boolean isArchived = petClient.isPetArchived(petId);
-                if (!isArchived) {
-                    activePetIds.add(petId);
-                } else {
-                    log.info("Skipping archived pet with ID {}", petId);
-                }
-            } catch (Exception e) {
-                log.warn("Could not check archive status for pet {}. Skipping. Error: {}", petId, e.getMessage());
+            Boolean archived = archivedFlags.get(petId);
+            if (archived == null) {
+                log.warn("Pet {} is unknown to the pet service. Skipping.", petId);
+            } else if (archived) {
+                log.info("Skipping archived pet with ID {}", petId);
+            } else {
+                activePetIds.add(petId);
             }
         }
 
@@ -349,6 +414,29 @@ public class ReservationService {
         return activePetIds;
     }
 
+    private List<SlotResponse> withoutArchivedPets(List<ReservationSlot> slots) {
+        Set<Long> archivedPetIds = findArchivedPetIds(slots);
+        return slots.stream()
+                .filter(slot -> !archivedPetIds.contains(slot.getPetId()))
+                .map(this::mapToResponse)
+                .toList();
+    }
+
+    private Set<Long> findArchivedPetIds(List<ReservationSlot> slots) {
+        try {
+            return petStatusReplica.getArchivedFlags(slots.stream().map(ReservationSlot::getPetId).toList())
+                    .entrySet()
+                    .stream()
+                    .filter(Map.Entry::getValue)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toSet());
+        } catch (Exception e) {
+            log.warn("Could not check archive status for {} slots. Including all of them. Error: {}",
+                    slots.size(), e.getMessage());
+            return Set.of();
+        }
+    }
+
     private SlotResponse mapToResponse(ReservationSlot slot) {
         return new SlotResponse(
                 slot.getId(),
@@ -0,0 +1,111 @@
+package org.petify.reservations.service;
+
+import org.petify.reservations.cache.PetStatusReplica;
+import org.petify.reservations.client.PetClient;
+import org.petify.reservations.dto.CalendarDayResponse;
+import org.petify.reservations.dto.CalendarIntervalResponse;
+import org.petify.reservations.exception.InvalidTimeRangeException;
+import org.petify.reservations.exception.PetServiceUnavailableException;
+import org.petify.reservations.model.ReservationSlot;
+import org.petify.reservations.model.ReservationStatus;
+import org.petify.reservations.repository.SlotRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Day-by-day free and booked slots of a pet or a whole shelter, read with one range query per calendar.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class SlotCalendarService {
+
+    // a little over three months, enough for any month or quarter grid
+    private static final int MAX_CALENDAR_DAYS = 93;
+
+    private final SlotRepository repo;
+    private final PetClient petClient;
+    private final PetStatusReplica petStatusReplica;
+
+    public List<CalendarDayResponse> getPetCalendar(Long petId, LocalDate from, LocalDate to) {
+        if (petId == null || petId <= 0) {
+            throw new IllegalArgumentException("Pet ID must be a positive number");
+        }
+        validateRange(from, to);
+
+        try {
+            if (Boolean.TRUE.equals(petStatusReplica.getArchivedFlags(List.of(petId)).get(petId))) {
+                return calendar(List.of(), from, to);
+            }
+        } catch (Exception e) {
+            log.warn("Could not check archive status for pet {}. Returning slots anyway.", petId);
+        }
+        return calendar(List.of(petId), from, to);
+    }
+
+    public List<CalendarDayResponse> getShelterCalendar(Long shelterId, LocalDate from, LocalDate to) {
+        if (shelterId == null || shelterId <= 0) {
+            throw new IllegalArgumentException("Shelter ID must be a positive number");
+        }
+        validateRange(from, to);
+
+        List<Long> activePetIds;
+        try {
+            List<Long> petIds = petClient.getPetIdsByShelterId(shelterId);
+            Map<Long, Boolean> archivedFlags = petStatusReplica.getArchivedFlags(petIds);
+            activePetIds = petIds.stream()
+                    .filter(petId -> Boolean.FALSE.equals(archivedFlags.get(petId)))
+                    .toList();
+        } catch (Exception e) {
+            log.error("Failed to fetch pets of shelter {} from pet service", shelterId, e);
+            throw new PetServiceUnavailableException("Unable to fetch pet information. Please try again later.");
+        }
+        return calendar(activePetIds, from, to);
+    }
+
+    private List<CalendarDayResponse> calendar(Collection<Long> petIds, LocalDate from, LocalDate to) {
+        Map<LocalDate, List<CalendarIntervalResponse>> days = new TreeMap<>();
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            days.put(d, new ArrayList<>());
+        }
+
+        if (!petIds.isEmpty()) {
+            // a slot crossing midnight belongs to the day it starts on
+            for (ReservationSlot slot : repo.findLiveOverlapping(petIds, from.atStartOfDay(), to.plusDays(1).atStartOfDay())) {
+                List<CalendarIntervalResponse> day = days.get(slot.getStartTime().toLocalDate());
+                if (day != null) {
+                    day.add(new CalendarIntervalResponse(slot.getId(), slot.getPetId(), slot.getStartTime(),
+                            slot.getEndTime(), slot.getStatus() == ReservationStatus.RESERVED));
+                }
+            }
+        }
+
+        return days.entrySet().stream()
+                .map(day -> {
+                    int booked = (int) day.getValue().stream().filter(CalendarIntervalResponse::booked).count();
+                    return new CalendarDayResponse(day.getKey(), day.getValue().size() - booked, booked, day.getValue());
+                })
+                .toList();
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new InvalidTimeRangeException("from must be before or equal to to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_CALENDAR_DAYS) {
+            throw new InvalidTimeRangeException("A calendar can span at most " + MAX_CALENDAR_DAYS + " days");
+        }
+    }
+}
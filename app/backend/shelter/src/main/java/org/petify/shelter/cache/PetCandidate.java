@@ -0,0 +1,30 @@
+package org.petify.shelter.cache;
+
+import org.petify.shelter.enums.PetType;
+import org.petify.shelter.model.Pet;
+import org.petify.shelter.model.Shelter;
+
+/**
+ * Swipe-relevant columns of a single non-archived pet and its shelter, as loaded into {@link PetCandidateIndex}.
+ */
+public record PetCandidate(
+        Long petId,
+        Long shuffleKey,
+        Integer age,
+        PetType type,
+        boolean vaccinated,
+        boolean urgent,
+        boolean sterilized,
+        boolean kidFriendly,
+        Long shelterId,
+        Boolean shelterActive,
+        Double latitude,
+        Double longitude
+) {
+    public static PetCandidate of(Pet pet) {
+        Shelter shelter = pet.getShelter();
+        return new PetCandidate(pet.getId(), pet.getShuffleKey(), pet.getAge(), pet.getType(), pet.isVaccinated(),
+                pet.isUrgent(), pet.isSterilized(), pet.isKidFriendly(), shelter.getId(), shelter.getIsActive(),
+                shelter.getLatitude(), shelter.getLongitude());
+    }
+}
@@ -0,0 +1,494 @@
+package org.petify.shelter.cache;
+
+import org.petify.shelter.enums.PetType;
+import org.petify.shelter.model.Pet;
+import org.petify.shelter.model.Shelter;
+import org.petify.shelter.repository.PetRepository;
+import org.petify.shelter.util.TransactionCallbacks;
+
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory columnar index of every swipeable pet (not archived and holding a shuffle key).
+ *
+ * <p>Each pet occupies a slot. Boolean attributes, types, ages and shelters are kept as compressed bitmaps
+ * of slots, so picking a swipe page is a handful of bitmap intersections followed by a scan over the shuffle
+ * keys of the matching slots; only the ids that make it onto the page are loaded from the database.
+ * Writes made through {@code PetService} and {@code ShelterService} are applied once their transaction
+ * commits, and the index is rebuilt periodically to pick up changes made by other instances.
+ */
+@Slf4j
+@Component
+public class PetCandidateIndex {
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final PetRepository petRepository;
+    private final boolean enabled;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Columns columns = new Columns();
+    private List<Consumer<Columns>> replayLog;
+    private volatile boolean ready;
+
+    public PetCandidateIndex(PetRepository petRepository,
+                             @Value("${petify.swipe.candidate-index.enabled:true}") boolean enabled) {
+        this.petRepository = petRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Whether swipe pages can be answered from the index; false while it is disabled or still loading.
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    // runs after the shuffle key backfill so that pets created before it are indexed too
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Could not build swipe candidate index, falling back to database queries", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${petify.swipe.candidate-index.rebuild-interval-ms:600000}",
+            initialDelayString = "${petify.swipe.candidate-index.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            replayLog = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Columns fresh = new Columns();
+        try {
+            // slots are handed out in shuffle key order, so a page is a walk over slot numbers
+            petRepository.findSwipeCandidates().stream()
+                    .sorted(Comparator.comparingLong(PetCandidate::shuffleKey))
+                    .forEach(fresh::upsert);
+            fresh.sealSortedSlots();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                replayLog = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // writes committed while the snapshot was loading
+            replayLog.forEach(mutation -> mutation.accept(fresh));
+            replayLog = null;
+            fresh.optimize();
+            columns = fresh;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Swipe candidate index rebuilt with {} pets", fresh.size());
+    }
+
+    public void upsert(Pet pet) {
+        if (pet.isArchived() || pet.getShuffleKey() == null) {
+            remove(pet.getId());
+            return;
+        }
+
+        PetCandidate candidate = PetCandidate.of(pet);
+        afterCommit(columns -> columns.upsert(candidate));
+    }
+
+    public void remove(Long petId) {
+        afterCommit(columns -> columns.remove(petId));
+    }
+
+    public void updateShelter(Shelter shelter) {
+        Long shelterId = shelter.getId();
+        boolean active = Boolean.TRUE.equals(shelter.getIsActive());
+        Double latitude = shelter.getLatitude();
+        Double longitude = shelter.getLongitude();
+        afterCommit(columns -> columns.updateShelter(shelterId, active, latitude, longitude));
+    }
+
+    public void removeShelter(Long shelterId) {
+        afterCommit(columns -> columns.removeShelter(shelterId));
+    }
+
+    /**
+     * Picks the next {@code limit} pets matching {@code filter} in the order of the permutation rotated by
+     * {@code seed}, strictly after {@code cursor}, skipping pets in {@code seenPets}.
+     */
+    public CandidatePage findPage(SwipeFilter filter, Long cursor, long seed, int limit, Roaring64Bitmap seenPets) {
+        lock.readLock().lock();
+        try {
+            return columns.findPage(filter, cursor, seed, limit, seenPets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public record CandidatePage(List<Long> petIds, Long lastShuffleKey) {}
+
+    private void afterCommit(Consumer<Columns> mutation) {
+        if (!enabled) {
+            return;
+        }
+
+        TransactionCallbacks.afterCommit(() -> apply(mutation));
+    }
+
+    private void apply(Consumer<Columns> mutation) {
+        lock.writeLock().lock();
+        try {
+            mutation.accept(columns);
+            if (replayLog != null) {
+                replayLog.add(mutation);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static long position(long shuffleKey, long seed) {
+        return Math.floorMod(shuffleKey - seed, Pet.SHUFFLE_KEY_BOUND);
+    }
+
+    private record ShelterState(boolean active, Double latitude, Double longitude) {}
+
+    /**
+     * Column store behind the index. Removed pets leave their slot empty until the next rebuild.
+     *
+     * <p>The slots loaded by a rebuild are ordered by shuffle key; pets added afterwards get slots in an
+     * unordered tail, which stays small until the next rebuild sorts it in.
+     */
+    private static final class Columns {
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private final Map<Long, Integer> slotByPetId = new HashMap<>();
+        private long[] petIds = new long[INITIAL_CAPACITY];
+        private long[] shuffleKeys = new long[INITIAL_CAPACITY];
+        private long[] shelterIds = new long[INITIAL_CAPACITY];
+        private int[] ages = new int[INITIAL_CAPACITY];
+        private int slots;
+        private int sortedSlots;
+
+        private final RoaringBitmap live = new RoaringBitmap();
+        private final RoaringBitmap activeShelter = new RoaringBitmap();
+        private final RoaringBitmap vaccinated = new RoaringBitmap();
+        private final RoaringBitmap urgent = new RoaringBitmap();
+        private final RoaringBitmap sterilized = new RoaringBitmap();
+        private final RoaringBitmap kidFriendly = new RoaringBitmap();
+        private final Map<PetType, RoaringBitmap> byType = new EnumMap<>(PetType.class);
+        private final NavigableMap<Integer, RoaringBitmap> byAge = new TreeMap<>();
+        private final Map<Long, RoaringBitmap> byShelter = new HashMap<>();
+        private final Map<Long, ShelterState> shelters = new HashMap<>();
+
+        int size() {
+            return slotByPetId.size();
+        }
+
+        void upsert(PetCandidate candidate) {
+            Integer slot = slotByPetId.get(candidate.petId());
+            if (slot != null && shuffleKeys[slot] != candidate.shuffleKey()) {
+                // a new key would break the order of the sorted slots, move the pet to the tail
+                clear(slot);
+                slot = allocate(candidate.petId());
+            } else if (slot != null) {
+                clear(slot);
+            } else {
+                slot = allocate(candidate.petId());
+            }
+
+            shuffleKeys[slot] = candidate.shuffleKey();
+            shelterIds[slot] = candidate.shelterId();
+            ages[slot] = candidate.age();
+
+            live.add(slot);
+            set(vaccinated, slot, candidate.vaccinated());
+            set(urgent, slot, candidate.urgent());
+            set(sterilized, slot, candidate.sterilized());
+            set(kidFriendly, slot, candidate.kidFriendly());
+            byType.computeIfAbsent(candidate.type(), type -> new RoaringBitmap()).add(slot);
+            byAge.computeIfAbsent(candidate.age(), age -> new RoaringBitmap()).add(slot);
+            byShelter.computeIfAbsent(candidate.shelterId(), id -> new RoaringBitmap()).add(slot);
+
+            boolean active = Boolean.TRUE.equals(candidate.shelterActive());
+            updateShelter(candidate.shelterId(), active, candidate.latitude(), candidate.longitude());
+            set(activeShelter, slot, active);
+        }
+
+        void remove(Long petId) {
+            Integer slot = slotByPetId.remove(petId);
+            if (slot != null) {
+                clear(slot);
+            }
+        }
+
+        void updateShelter(Long shelterId, boolean active, Double latitude, Double longitude) {
+            ShelterState previous = shelters.put(shelterId, new ShelterState(active, latitude, longitude));
+            RoaringBitmap pets = byShelter.get(shelterId);
+            if (pets != null && previous != null && previous.active() != active) {
+                if (active) {
+                    activeShelter.or(pets);
+                } else {
+                    activeShelter.andNot(pets);
+                }
+            }
+        }
+
+        void removeShelter(Long shelterId) {
+            shelters.remove(shelterId);
+            RoaringBitmap pets = byShelter.remove(shelterId);
+            if (pets != null) {
+                pets.forEach((int slot) -> {
+                    slotByPetId.remove(petIds[slot]);
+                    clear(slot);
+                });
+            }
+        }
+
+        void sealSortedSlots() {
+            sortedSlots = slots;
+        }
+
+        void optimize() {
+            live.runOptimize();
+            activeShelter.runOptimize();
+            vaccinated.runOptimize();
+            urgent.runOptimize();
+            sterilized.runOptimize();
+            kidFriendly.runOptimize();
+            byType.values().forEach(RoaringBitmap::runOptimize);
+            byAge.values().forEach(RoaringBitmap::runOptimize);
+            byShelter.values().forEach(RoaringBitmap::runOptimize);
+        }
+
+        CandidatePage findPage(SwipeFilter filter, Long cursor, long seed, int limit, Roaring64Bitmap seenPets) {
+            if (limit <= 0) {
+                return new CandidatePage(List.of(), null);
+            }
+
+            RoaringBitmap candidates = RoaringBitmap.and(live, activeShelter);
+            narrow(candidates, vaccinated, filter.vaccinated());
+            narrow(candidates, urgent, filter.urgent());
+            narrow(candidates, sterilized, filter.sterilized());
+            narrow(candidates, kidFriendly, filter.kidFriendly());
+            if (filter.type() != null) {
+                candidates.and(byType.getOrDefault(filter.type(), new RoaringBitmap()));
+            }
+            if (filter.minAge() != null || filter.maxAge() != null) {
+                candidates.and(ageBetween(filter.minAge(), filter.maxAge()));
+            }
+            if (filter.hasRadius()) {
+                candidates.and(sheltersWithin(filter.userLat(), filter.userLng(), filter.radiusKm()));
+            }
+
+            long after = cursor == null ? -1L : position(cursor, seed);
+
+            // the sorted slots are walked from the cursor: [seed, end of permutation), then [start, seed)
+            List<Integer> page = new ArrayList<>(limit);
+            int seedSlot = firstSortedSlotFrom(seed);
+            if (cursor == null || cursor >= seed) {
+                int from = cursor == null ? seedSlot : firstSortedSlotFrom(cursor + 1);
+                walk(candidates, from, sortedSlots, limit, seenPets, page);
+            }
+            int from = cursor != null && cursor < seed ? firstSortedSlotFrom(cursor + 1) : 0;
+            walk(candidates, from, seedSlot, limit, seenPets, page);
+
+            // pets added since the rebuild are merged in by rotated position
+            List<Integer> tail = tailPage(candidates, after, seed, limit, seenPets);
+            if (!tail.isEmpty()) {
+                page.addAll(tail);
+                page.sort(Comparator.comparingLong((Integer slot) -> position(shuffleKeys[slot], seed)));
+                page = page.subList(0, Math.min(limit, page.size()));
+            }
+
+            List<Long> ids = page.stream().map(slot -> petIds[slot]).toList();
+            Long lastShuffleKey = page.isEmpty() ? null : shuffleKeys[page.getLast()];
+            return new CandidatePage(ids, lastShuffleKey);
+        }
+
+        private void walk(RoaringBitmap candidates, int from, int to, int limit, Roaring64Bitmap seenPets,
+                          List<Integer> page) {
+            if (from >= to || page.size() >= limit) {
+                return;
+            }
+
+            PeekableIntIterator iterator = candidates.getIntIterator();
+            iterator.advanceIfNeeded(from);
+            while (iterator.hasNext() && page.size() < limit) {
+                int slot = iterator.next();
+                if (slot >= to) {
+                    return;
+                }
+                if (seenPets == null || !seenPets.contains(petIds[slot])) {
+                    page.add(slot);
+                }
+            }
+        }
+
+        // bounded max-heap on the rotated position keeps the limit closest tail pets after the cursor
+        private List<Integer> tailPage(RoaringBitmap candidates, long after, long seed, int limit,
+                                       Roaring64Bitmap seenPets) {
+            if (sortedSlots == slots) {
+                return List.of();
+            }
+
+            PriorityQueue<Integer> heap = new PriorityQueue<>(limit,
+                    Comparator.comparingLong((Integer slot) -> position(shuffleKeys[slot], seed)).reversed());
+            PeekableIntIterator iterator = candidates.getIntIterator();
+            iterator.advanceIfNeeded(sortedSlots);
+            while (iterator.hasNext()) {
+                int slot = iterator.next();
+                long position = position(shuffleKeys[slot], seed);
+                if (position <= after || seenPets != null && seenPets.contains(petIds[slot])) {
+                    continue;
+                }
+
+                if (heap.size() < limit) {
+                    heap.add(slot);
+                } else if (position < position(shuffleKeys[heap.peek()], seed)) {
+                    heap.poll();
+                    heap.add(slot);
+                }
+            }
+            return new ArrayList<>(heap);
+        }
+
+        // first sorted slot whose shuffle key is at least key; emptied slots keep their key, so the order holds
+        private int firstSortedSlotFrom(long key) {
+            int low = 0;
+            int high = sortedSlots;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (shuffleKeys[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int allocate(Long petId) {
+            if (slots == petIds.length) {
+                int capacity = petIds.length * 2;
+                petIds = Arrays.copyOf(petIds, capacity);
+                shuffleKeys = Arrays.copyOf(shuffleKeys, capacity);
+                shelterIds = Arrays.copyOf(shelterIds, capacity);
+                ages = Arrays.copyOf(ages, capacity);
+            }
+
+            int slot = slots++;
+            petIds[slot] = petId;
+            slotByPetId.put(petId, slot);
+            return slot;
+        }
+
+        private void clear(int slot) {
+            live.remove(slot);
+            activeShelter.remove(slot);
+            vaccinated.remove(slot);
+            urgent.remove(slot);
+            sterilized.remove(slot);
+            kidFriendly.remove(slot);
+            byType.values().forEach(bitmap -> bitmap.remove(slot));
+
+            RoaringBitmap age = byAge.get(ages[slot]);
+            if (age != null) {
+                age.remove(slot);
+            }
+
+            RoaringBitmap shelter = byShelter.get(shelterIds[slot]);
+            if (shelter != null) {
+                shelter.remove(slot);
+            }
+        }
+
+        private RoaringBitmap ageBetween(Integer minAge, Integer maxAge) {
+            int from = minAge != null ? minAge : Integer.MIN_VALUE;
+            int to = maxAge != null ? maxAge : Integer.MAX_VALUE;
+            if (from > to) {
+                return new RoaringBitmap();
+            }
+            return RoaringBitmap.or(byAge.subMap(from, true, to, true).values().iterator());
+        }
+
+        // same spherical law of cosines as PetSpecification.withinRadius
+        private RoaringBitmap sheltersWithin(double lat, double lng, double radiusKm) {
+            double minCosAngle = Math.cos(radiusKm / EARTH_RADIUS_KM);
+            double sinLat = Math.sin(Math.toRadians(lat));
+            double cosLat = Math.cos(Math.toRadians(lat));
+
+            RoaringBitmap result = new RoaringBitmap();
+            shelters.forEach((shelterId, shelter) -> {
+                if (shelter.latitude() == null || shelter.longitude() == null) {
+                    return;
+                }
+
+                double shelterLat = Math.toRadians(shelter.latitude());
+                double cosAngle = sinLat * Math.sin(shelterLat)
+                        + cosLat * Math.cos(shelterLat) * Math.cos(Math.toRadians(shelter.longitude() - lng));
+                RoaringBitmap pets = byShelter.get(shelterId);
+                if (cosAngle >= minCosAngle && pets != null) {
+                    result.or(pets);
+                }
+            });
+            return result;
+        }
+
+        private static void narrow(RoaringBitmap candidates, RoaringBitmap attribute, Boolean wanted) {
+            if (wanted == null) {
+                return;
+            }
+            if (wanted) {
+                candidates.and(attribute);
+            } else {
+                candidates.andNot(attribute);
+            }
+        }
+
+        private static void set(RoaringBitmap bitmap, int slot, boolean value) {
+            if (value) {
+                bitmap.add(slot);
+            } else {
+                bitmap.remove(slot);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.petify.shelter.cache;
+
+import org.petify.shelter.dto.PetSummary;
+import org.petify.shelter.dto.ShelterSummary;
+import org.petify.shelter.exception.PetNotFoundException;
+import org.petify.shelter.exception.ShelterNotFoundException;
+import org.petify.shelter.repository.PetRepository;
+import org.petify.shelter.repository.ShelterRepository;
+import org.petify.shelter.util.TransactionCallbacks;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * Read model behind the lookups chat, reservations and funding make over Feign for every message, slot
+ * or donation. Entries are evicted by the pet and shelter write paths once their transaction commits.
+ */
+@RequiredArgsConstructor
+@Component
+public class PetSummaryCache {
+    public static final String PET_SUMMARIES = "pet-summaries";
+    public static final String SHELTER_SUMMARIES = "shelter-summaries";
+
+    private final PetRepository petRepository;
+    private final ShelterRepository shelterRepository;
+    private final CacheManager cacheManager;
+
+    @Cacheable(PET_SUMMARIES)
+    public PetSummary getPetSummary(Long petId) {
+        return petRepository.findSummaryById(petId)
+                .orElseThrow(() -> new PetNotFoundException(petId));
+    }
+
+    @Cacheable(SHELTER_SUMMARIES)
+    public ShelterSummary getShelterSummary(Long shelterId) {
+        return shelterRepository.findSummaryById(shelterId)
+                .orElseThrow(() -> new ShelterNotFoundException(shelterId));
+    }
+
+    public void evictPet(Long petId) {
+        TransactionCallbacks.afterCommit(() -> cache(PET_SUMMARIES).evict(petId));
+    }
+
+    // shelter changes are rare, so every pet summary is dropped instead of tracking pets per shelter
+    public void evictShelter(Long shelterId) {
+        TransactionCallbacks.afterCommit(() -> {
+            cache(SHELTER_SUMMARIES).evict(shelterId);
+            cache(PET_SUMMARIES).clear();
+        });
+    }
+
+    private Cache cache(String name) {
+        return Objects.requireNonNull(cacheManager.getCache(name), name);
+    }
+}
@@ -0,0 +1,104 @@
+package org.petify.shelter.cache;
+
+import org.petify.shelter.repository.FavoritePetRepository;
+
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Compressed per-user set of pet ids the user has already swiped (liked, disliked or supported).
+ *
+ * <p>Only the most recently active users are kept, so heavy swipers can skip the {@code NOT EXISTS}
+ * anti-join in the swipe feed and filter candidates in memory instead. Disabled by default.
+ */
+@Component
+public class SeenPetCache {
+    private final FavoritePetRepository favoritePetRepository;
+    private final boolean enabled;
+    private final Map<String, Roaring64Bitmap> bitmaps;
+
+    public SeenPetCache(FavoritePetRepository favoritePetRepository,
+                        @Value("${petify.swipe.seen-cache.enabled:false}") boolean enabled,
+                        @Value("${petify.swipe.seen-cache.max-users:10000}") int maxUsers) {
+        this.favoritePetRepository = favoritePetRepository;
+        this.enabled = enabled;
+        this.bitmaps = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Roaring64Bitmap> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    /**
+     * Returns a snapshot of the pets the user has seen, loading it on first access, or empty when the
+     * cache is disabled.
+     */
+    public Optional<Roaring64Bitmap> getSeenPets(String username) {
+        if (!enabled || username == null) {
+            return Optional.empty();
+        }
+
+        Roaring64Bitmap bitmap;
+        synchronized (bitmaps) {
+            bitmap = bitmaps.get(username);
+        }
+
+        if (bitmap == null) {
+            bitmap = load(username);
+        }
+
+        synchronized (bitmap) {
+            Roaring64Bitmap snapshot = new Roaring64Bitmap();
+            snapshot.or(bitmap);
+            return Optional.of(snapshot);
+        }
+    }
+
+    public void markSeen(String username, Long petId) {
+        if (!enabled || username == null) {
+            return;
+        }
+
+        Roaring64Bitmap bitmap;
+        synchronized (bitmaps) {
+            bitmap = bitmaps.get(username);
+        }
+
+        // users that are not cached get the new pet with their first load
+        if (bitmap != null) {
+            synchronized (bitmap) {
+                bitmap.addLong(petId);
+            }
+        }
+    }
+
+    public void evict(String username) {
+        synchronized (bitmaps) {
+            bitmaps.remove(username);
+        }
+    }
+
+    private Roaring64Bitmap loadSeenPets(String username) {
+        Roaring64Bitmap bitmap = new Roaring64Bitmap();
+        if (username != null) {
+            favoritePetRepository.findPetIdsByUsername(username).forEach(bitmap::addLong);
+            bitmap.runOptimize();
+        }
+        return bitmap;
+    }
+
+    private Roaring64Bitmap load(String username) {
+        Roaring64Bitmap bitmap = loadSeenPets(username);
+
+        synchronized (bitmaps) {
+            Roaring64Bitmap existing = bitmaps.putIfAbsent(username, bitmap);
+            return existing != null ? existing : bitmap;
+        }
+    }
+}
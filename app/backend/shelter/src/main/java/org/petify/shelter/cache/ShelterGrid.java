@@ -0,0 +1,281 @@
+package org.petify.shelter.cache;
+
+import org.petify.shelter.model.Shelter;
+import org.petify.shelter.repository.ShelterRepository;
+import org.petify.shelter.util.TransactionCallbacks;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory grid of the coordinates of every active shelter, used to walk shelters outward from a point.
+ *
+ * <p>Shelters are bucketed into square cells of {@code ring-km} kilometres of latitude. Looking up a ring only
+ * visits the cells overlapping its bounding box, so nearby browsing never touches far away shelters. Writes
+ * made through {@code ShelterService} are applied once their transaction commits, and the grid is rebuilt
+ * periodically to pick up changes made by other instances. Until the first rebuild succeeds, rings are read
+ * from the database with a bounding-box query instead, so a request never waits for the grid to load.
+ */
+@Slf4j
+@Component
+public class ShelterGrid {
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE_LATITUDE = Math.PI * EARTH_RADIUS_KM / 180.0;
+
+    private final ShelterRepository shelterRepository;
+    private final double ringKm;
+    private final double maxRadiusKm;
+    private final double cellDegrees;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Cells cells;
+    private List<Consumer<Cells>> replayLog;
+    private volatile boolean ready;
+
+    public ShelterGrid(ShelterRepository shelterRepository,
+                       @Value("${petify.nearby.ring-km:10}") double ringKm,
+                       @Value("${petify.nearby.max-radius-km:500}") double maxRadiusKm) {
+        this.shelterRepository = shelterRepository;
+        this.ringKm = ringKm;
+        this.maxRadiusKm = maxRadiusKm;
+        this.cellDegrees = ringKm / KM_PER_DEGREE_LATITUDE;
+        this.cells = new Cells(cellDegrees);
+    }
+
+    public double ringKm() {
+        return ringKm;
+    }
+
+    public double maxRadiusKm() {
+        return maxRadiusKm;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Could not build shelter grid, querying the database until the next rebuild", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${petify.nearby.rebuild-interval-ms:600000}",
+            initialDelayString = "${petify.nearby.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            replayLog = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Cells fresh = new Cells(cellDegrees);
+        try {
+            shelterRepository.findActiveLocations().forEach(fresh::upsert);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                replayLog = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // writes committed while the snapshot was loading
+            replayLog.forEach(mutation -> mutation.accept(fresh));
+            replayLog = null;
+            cells = fresh;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Shelter grid rebuilt with {} shelters", fresh.size());
+    }
+
+    public void upsert(Shelter shelter) {
+        if (!Boolean.TRUE.equals(shelter.getIsActive()) || shelter.getLatitude() == null
+                || shelter.getLongitude() == null) {
+            remove(shelter.getId());
+            return;
+        }
+
+        ShelterPoint point = ShelterPoint.of(shelter);
+        TransactionCallbacks.afterCommit(() -> apply(cells -> cells.upsert(point)));
+    }
+
+    public void remove(Long shelterId) {
+        TransactionCallbacks.afterCommit(() -> apply(cells -> cells.remove(shelterId)));
+    }
+
+    /**
+     * Active shelters whose distance from the given point lies in {@code [fromKm, toKm)}, nearest first and
+     * by id among equally distant ones.
+     */
+    public List<ShelterDistance> findInRing(double lat, double lng, double fromKm, double toKm) {
+        if (!ready) {
+            return findInRingFromDatabase(lat, lng, fromKm, toKm);
+        }
+
+        lock.readLock().lock();
+        try {
+            return cells.findInRing(lat, lng, fromKm, toKm);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<ShelterDistance> findInRingFromDatabase(double lat, double lng, double fromKm, double toKm) {
+        Box box = Box.around(lat, lng, toKm);
+        return shelterRepository.findActiveLocationsWithin(box.minLat(), box.maxLat(), box.minLng(), box.maxLng())
+                .stream()
+                .map(point -> new ShelterDistance(point.shelterId(),
+                        distanceKm(lat, lng, point.latitude(), point.longitude())))
+                .filter(shelter -> shelter.distanceKm() >= fromKm && shelter.distanceKm() < toKm)
+                .sorted(ShelterDistance.NEAREST_FIRST)
+                .toList();
+    }
+
+    public record ShelterDistance(Long shelterId, double distanceKm) {
+        public static final Comparator<ShelterDistance> NEAREST_FIRST = Comparator
+                .comparingDouble(ShelterDistance::distanceKm)
+                .thenComparing(ShelterDistance::shelterId);
+    }
+
+    private void apply(Consumer<Cells> mutation) {
+        lock.writeLock().lock();
+        try {
+            mutation.accept(cells);
+            if (replayLog != null) {
+                replayLog.add(mutation);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // haversine, the same formula PetService uses for the distance shown to users
+    static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double deltaLat = Math.toRadians(lat2 - lat1);
+        double deltaLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(deltaLng / 2) * Math.sin(deltaLng / 2);
+        return EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    // latitude/longitude box around a circle; close to the poles or across the antimeridian the longitude
+    // range degenerates and the box spans every longitude
+    private record Box(double minLat, double maxLat, double minLng, double maxLng, boolean lngBounded) {
+
+        static Box around(double lat, double lng, double radiusKm) {
+            double deltaLat = radiusKm / KM_PER_DEGREE_LATITUDE;
+            // widest longitude difference on the circle, reached north or south of lat
+            double sinAngle = Math.sin(radiusKm / EARTH_RADIUS_KM);
+            double cosLat = Math.cos(Math.toRadians(lat));
+            if (Math.abs(lat) + deltaLat < 90.0 && sinAngle < cosLat) {
+                double deltaLng = Math.toDegrees(Math.asin(sinAngle / cosLat));
+                if (lng - deltaLng >= -180.0 && lng + deltaLng <= 180.0) {
+                    return new Box(lat - deltaLat, lat + deltaLat, lng - deltaLng, lng + deltaLng, true);
+                }
+            }
+            return new Box(lat - deltaLat, lat + deltaLat, -180.0, 180.0, false);
+        }
+    }
+
+    private static final class Cells {
+        private final double cellDegrees;
+        private final Map<Long, ShelterPoint> shelters = new HashMap<>();
+        private final Map<Long, List<ShelterPoint>> byCell = new HashMap<>();
+
+        private Cells(double cellDegrees) {
+            this.cellDegrees = cellDegrees;
+        }
+
+        int size() {
+            return shelters.size();
+        }
+
+        void upsert(ShelterPoint point) {
+            remove(point.shelterId());
+            shelters.put(point.shelterId(), point);
+            byCell.computeIfAbsent(cellOf(point.latitude(), point.longitude()), cell -> new ArrayList<>()).add(point);
+        }
+
+        void remove(Long shelterId) {
+            ShelterPoint previous = shelters.remove(shelterId);
+            if (previous == null) {
+                return;
+            }
+
+            long cell = cellOf(previous.latitude(), previous.longitude());
+            List<ShelterPoint> points = byCell.get(cell);
+            points.removeIf(point -> point.shelterId().equals(shelterId));
+            if (points.isEmpty()) {
+                byCell.remove(cell);
+            }
+        }
+
+        List<ShelterDistance> findInRing(double lat, double lng, double fromKm, double toKm) {
+            List<ShelterDistance> result = new ArrayList<>();
+            Consumer<ShelterPoint> collect = point -> {
+                double distance = distanceKm(lat, lng, point.latitude(), point.longitude());
+                if (distance >= fromKm && distance < toKm) {
+                    result.add(new ShelterDistance(point.shelterId(), distance));
+                }
+            };
+
+            Box box = Box.around(lat, lng, toKm);
+            int fromRow = index(box.minLat());
+            int toRow = index(box.maxLat());
+            int fromColumn = index(box.minLng());
+            int toColumn = index(box.maxLng());
+
+            // close to the poles, across the antimeridian or once the box holds more cells than there are
+            // shelters, a plain scan is cheaper than visiting empty cells
+            long boxCells = (long) (toRow - fromRow + 1) * (toColumn - fromColumn + 1);
+            if (!box.lngBounded() || boxCells > shelters.size()) {
+                shelters.values().forEach(collect);
+            } else {
+                for (int row = fromRow; row <= toRow; row++) {
+                    for (int column = fromColumn; column <= toColumn; column++) {
+                        List<ShelterPoint> points = byCell.get(key(row, column));
+                        if (points != null) {
+                            points.forEach(collect);
+                        }
+                    }
+                }
+            }
+
+            result.sort(ShelterDistance.NEAREST_FIRST);
+            return result;
+        }
+
+        private long cellOf(double lat, double lng) {
+            return key(index(lat), index(lng));
+        }
+
+        private int index(double degrees) {
+            return (int) Math.floor(degrees / cellDegrees);
+        }
+
+        private static long key(int row, int column) {
+            return ((long) row << 32) | (column & 0xFFFFFFFFL);
+        }
+    }
+}
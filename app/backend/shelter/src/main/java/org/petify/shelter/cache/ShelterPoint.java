@@ -0,0 +1,16 @@
+package org.petify.shelter.cache;
+
+import org.petify.shelter.model.Shelter;
+
+/**
+ * Location of an active shelter, as loaded into {@link ShelterGrid}.
+ */
+public record ShelterPoint(
+        Long shelterId,
+        Double latitude,
+        Double longitude
+) {
+    public static ShelterPoint of(Shelter shelter) {
+        return new ShelterPoint(shelter.getId(), shelter.getLatitude(), shelter.getLongitude());
+    }
+}
@@ -0,0 +1,23 @@
+package org.petify.shelter.cache;
+
+import org.petify.shelter.enums.PetType;
+
+/**
+ * Swipe feed filters as sent by the client; {@code null} means "any".
+ */
+public record SwipeFilter(
+        Boolean vaccinated,
+        Boolean urgent,
+        Boolean sterilized,
+        Boolean kidFriendly,
+        Integer minAge,
+        Integer maxAge,
+        PetType type,
+        Double userLat,
+        Double userLng,
+        Double radiusKm
+) {
+    public boolean hasRadius() {
+        return userLat != null && userLng != null && radiusKm != null;
+    }
+}
@@ -0,0 +1,37 @@
+package org.petify.shelter.config;
+
+import org.petify.shelter.cache.PetSummaryCache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Value("${petify.cache.summaries.max-size:50000}")
+    private long maxSize;
+
+    // other instances evict only their own copy, the TTL bounds how stale a summary can get
+    @Value("${petify.cache.summaries.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
+                PetSummaryCache.PET_SUMMARIES, PetSummaryCache.SHELTER_SUMMARIES);
+        // recordStats feeds the cache.gets/cache.evictions meters Actuator binds for every cache
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats());
+        return cacheManager;
+    }
+}
@@ -1,11 +1,17 @@
 package org.petify.shelter.controller;
 
+import org.petify.shelter.cache.SwipeFilter;
 import org.petify.shelter.dto.AdoptionRequest;
 import org.petify.shelter.dto.AdoptionResponse;
+import org.petify.shelter.dto.NearbyPetsResponse;
+import org.petify.shelter.dto.PetIdPageResponse;
 import org.petify.shelter.dto.PetImageResponse;
+import org.petify.shelter.dto.PetPageResponse;
 import org.petify.shelter.dto.PetRequest;
 import org.petify.shelter.dto.PetResponse;
 import org.petify.shelter.dto.PetResponseWithImages;
+import org.petify.shelter.dto.PetStatusBatchRequest;
+import org.petify.shelter.dto.PetSummary;
 import org.petify.shelter.dto.ShelterResponse;
 import org.petify.shelter.enums.PetType;
 import org.petify.shelter.service.AdoptionService;
@@ -13,12 +19,17 @@ import org.petify.shelter.service.FavoritePetService;
 import org.petify.shelter.service.PetImageService;
 import org.petify.shelter.service.PetService;
 import org.petify.shelter.service.ShelterService;
+import org.petify.shelter.service.SwipeDeckService;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -36,8 +47,10 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RequiredArgsConstructor
@@ -49,6 +62,8 @@ public class PetController {
     private final ShelterService shelterService;
     private final FavoritePetService favoritePetService;
     private final PetImageService petImageService;
+    private final SwipeDeckService swipeDeckService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping()
     public ResponseEntity<?> getAllPets(
@@ -60,7 +75,7 @@ public class PetController {
         return ResponseEntity.ok(petService.getPets(pageable));
     }
 
-    // implements cursor-based pagination
+    // implements cursor-based pagination over a per-session shuffled order (see PetService)
     @PreAuthorize("hasAnyRole('USER', 'VOLUNTEER', 'ADMIN')")
     @GetMapping("/filter")
     public ResponseEntity<?> getFilteredPets(
@@ -75,6 +90,7 @@ public class PetController {
             @RequestParam(required = false) Double userLng,
             @RequestParam(required = false) Double radiusKm,
             @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Long seed,
             @RequestParam(defaultValue = "15") int limit,
             @AuthenticationPrincipal Jwt jwt
     ) {
@@ -82,10 +98,59 @@ public class PetController {
 
         return ResponseEntity.ok(
                 petService.getFilteredPetsWithCursor(vaccinated, urgent, sterilized, kidFriendly, minAge, maxAge,
-                        type, userLat, userLng, radiusKm, cursor, limit, username)
+                        type, userLat, userLng, radiusKm, cursor, seed, limit, username)
         );
     }
 
+    // pets ordered by distance of their shelter, pass nextCursor back as cursor until it is null
+    @PreAuthorize("hasAnyRole('USER', 'VOLUNTEER', 'ADMIN')")
+    @GetMapping("/nearby")
+    public ResponseEntity<NearbyPetsResponse> getNearbyPets(
+            @RequestParam(required = false) Boolean vaccinated,
+            @RequestParam(required = false) Boolean urgent,
+            @RequestParam(required = false) Boolean sterilized,
+            @RequestParam(required = false) Boolean kidFriendly,
+            @RequestParam(required = false) Integer minAge,
+            @RequestParam(required = false) Integer maxAge,
+            @RequestParam(required = false) PetType type,
+            @RequestParam @Min(-90) @Max(90) Double userLat,
+            @RequestParam @Min(-180) @Max(180) Double userLng,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "15") int limit
+    ) {
+        return ResponseEntity.ok(petService.getNearbyPets(vaccinated, urgent, sterilized, kidFriendly, minAge, maxAge,
+                type, userLat, userLng, radiusKm, cursor, limit));
+    }
+
+    // next cards of the user's server-side swipe deck, like/dislike/support take them off the deck
+    @PreAuthorize("hasAnyRole('USER', 'VOLUNTEER', 'ADMIN')")
+    @GetMapping("/deck")
+    public ResponseEntity<List<PetResponseWithImages>> getSwipeDeck(
+            @RequestParam(required = false) Boolean vaccinated,
+            @RequestParam(required = false) Boolean urgent,
+            @RequestParam(required = false) Boolean sterilized,
+            @RequestParam(required = false) Boolean kidFriendly,
+            @RequestParam(required = false) Integer minAge,
+            @RequestParam(required = false) Integer maxAge,
+            @RequestParam(required = false) PetType type,
+            @RequestParam(required = false) Double userLat,
+            @RequestParam(required = false) Double userLng,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(defaultValue = "5") int count,
+            @AuthenticationPrincipal Jwt jwt
+    ) {
+        String username = jwt != null ? jwt.getSubject() : null;
+
+        if (username == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        SwipeFilter filter = new SwipeFilter(vaccinated, urgent, sterilized, kidFriendly, minAge, maxAge, type,
+                userLat, userLng, radiusKm);
+        return ResponseEntity.ok(swipeDeckService.peek(username, filter, count));
+    }
+
     @PreAuthorize("hasAnyRole('ADMIN', 'SHELTER')")
     @PostMapping()
     public ResponseEntity<?> addPet(@Valid @RequestPart PetRequest petRequest,
@@ -118,11 +183,46 @@ public class PetController {
         return ResponseEntity.ok(petIds);
     }
 
+    // keyset page of ids ordered by id, pass nextCursor back as cursor until it is null
+    @GetMapping("/ids/page")
+    public ResponseEntity<PetIdPageResponse> getPetIdsPage(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "1000") int size
+    ) {
+        return ResponseEntity.ok(petService.getPetIdsAfter(cursor, size));
+    }
+
+    // loads the whole table in one response, prefer /all/page or /all/stream
     @GetMapping("/all")
     public ResponseEntity<List<PetResponseWithImages>> getAllPetsAsList() {
         return ResponseEntity.ok(petService.getAllPets());
     }
 
+    @GetMapping("/all/page")
+    public ResponseEntity<PetPageResponse> getPetsPage(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "100") int size
+    ) {
+        return ResponseEntity.ok(petService.getPetsAfter(cursor, size));
+    }
+
+    // newline-delimited JSON, one pet per line, written while the rows are read
+    @GetMapping(value = "/all/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllPets() {
+        StreamingResponseBody body = out -> petService.streamAllPets(pet -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(pet));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @GetMapping("/shelter/{shelterId}/ids")
     @PreAuthorize("hasAnyRole('ADMIN', 'SHELTER')")
     public ResponseEntity<List<Long>> getPetIdsByShelterId(@PathVariable Long shelterId) {
@@ -136,6 +236,12 @@ public class PetController {
         return ResponseEntity.ok(archived);
     }
 
+    // archived/owner/shelter status of many pets in one call, unknown ids are omitted
+    @PostMapping("/status:batch")
+    public ResponseEntity<List<PetSummary>> getPetStatuses(@Valid @RequestBody PetStatusBatchRequest request) {
+        return ResponseEntity.ok(petService.getPetStatuses(request.petIds()));
+    }
+
     @PreAuthorize("hasAnyRole('ADMIN', 'SHELTER')")
     @PutMapping("/{id}")
     public ResponseEntity<PetResponse> updatePet(
@@ -0,0 +1,9 @@
+package org.petify.shelter.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+public record NearbyPetsResponse(
+        List<PetResponseWithImages> pets,
+        String nextCursor
+) implements Serializable {}
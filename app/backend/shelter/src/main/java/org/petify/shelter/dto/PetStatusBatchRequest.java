@@ -0,0 +1,12 @@
+package org.petify.shelter.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.io.Serializable;
+import java.util.Set;
+
+public record PetStatusBatchRequest(
+        @NotEmpty @Size(max = 1000) Set<@NotNull Long> petIds
+) implements Serializable {}
@@ -0,0 +1,11 @@
+package org.petify.shelter.dto;
+
+import java.io.Serializable;
+
+public record PetSummary(
+        Long id,
+        Long shelterId,
+        String ownerUsername,
+        boolean archived,
+        boolean shelterActive
+) implements Serializable {}
@@ -0,0 +1,9 @@
+package org.petify.shelter.dto;
+
+import java.io.Serializable;
+
+public record ShelterSummary(
+        Long id,
+        String ownerUsername,
+        boolean active
+) implements Serializable {}
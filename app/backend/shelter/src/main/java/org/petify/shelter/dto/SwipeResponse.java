@@ -5,5 +5,6 @@ import java.util.List;
 
 public record SwipeResponse(
         List<PetResponseWithImages> pets,
-        Long nextCursor
+        Long nextCursor,
+        Long seed
 ) implements Serializable {}
@@ -0,0 +1,7 @@
+package org.petify.shelter.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String cursor) {
+        super("Cursor '" + cursor + "' is not a cursor returned by this endpoint.");
+    }
+}
@@ -12,9 +12,11 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.AllArgsConstructor;
@@ -24,16 +26,26 @@ import lombok.Setter;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
 @Entity
-@Table(name = "pets")
+@Table(name = "pets", indexes = {
+        @Index(name = "idx_pets_shuffle_key", columnList = "shuffle_key", unique = true)
+})
 public class Pet {
+    /**
+     * Upper bound (exclusive) of {@link #shuffleKey}; kept within 2^53 so the key survives a round trip
+     * through JSON number parsers that use doubles.
+     */
+    public static final long SHUFFLE_KEY_BOUND = 1L << 53;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "id", nullable = false)
@@ -89,12 +101,18 @@ public class Pet {
     @Column(name = "image_name")
     private String imageName;
 
+    // listing pages initialize the images of up to 100 pets with a single IN query
+    @BatchSize(size = 100)
     @OneToMany(mappedBy = "pet", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<PetImage> images;
 
     @OneToMany(mappedBy = "pet", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<FavoritePet> favoritePets;
 
+    // random position of the pet in the swipe feed permutation
+    @Column(name = "shuffle_key")
+    private Long shuffleKey;
+
     public Pet(Shelter shelter, String description, boolean kidFriendly, boolean sterilized,
                boolean urgent, boolean vaccinated, Gender gender, Integer age, String breed,
                PetType type, PetSize size, String name) {
@@ -112,6 +130,13 @@ public class Pet {
         this.name = name;
     }
 
+    @PrePersist
+    protected void onCreate() {
+        if (shuffleKey == null) {
+            shuffleKey = ThreadLocalRandom.current().nextLong(SHUFFLE_KEY_BOUND);
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -6,6 +6,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
@@ -16,6 +17,7 @@ import lombok.Setter;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.List;
 
@@ -24,7 +26,10 @@ import java.util.List;
 @Getter
 @Setter
 @Entity
-@Table(name = "shelters")
+@BatchSize(size = 100)
+@Table(name = "shelters", indexes = {
+        @Index(name = "idx_shelters_lat_lng", columnList = "latitude, longitude")
+})
 public class Shelter {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -3,9 +3,13 @@ package org.petify.shelter.repository;
 import org.petify.shelter.enums.MatchType;
 import org.petify.shelter.model.FavoritePet;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,7 +17,15 @@ import java.util.Optional;
 public interface FavoritePetRepository extends JpaRepository<FavoritePet, Long> {
     List<FavoritePet> findByUsername(String username);
 
+    @EntityGraph(attributePaths = {"pet", "pet.shelter"})
     Optional<List<FavoritePet>> findByUsernameAndStatus(String username, MatchType status);
 
     Optional<FavoritePet> findByUsernameAndPetId(String username, Long petId);
+
+    @Query("SELECT f.pet.id FROM FavoritePet f WHERE f.username = :username")
+    List<Long> findPetIdsByUsername(@Param("username") String username);
+
+    @Query("SELECT f.pet.id FROM FavoritePet f WHERE f.username = :username AND f.pet.id IN :petIds")
+    List<Long> findPetIdsByUsernameAndPetIdIn(@Param("username") String username,
+                                              @Param("petIds") Collection<Long> petIds);
 }
@@ -1,19 +1,85 @@
 package org.petify.shelter.repository;
 
+import org.petify.shelter.cache.PetCandidate;
+import org.petify.shelter.dto.PetSummary;
 import org.petify.shelter.model.Pet;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PetRepository extends JpaRepository<Pet, Long>, JpaSpecificationExecutor<Pet> {
+    // listing reads join the shelter up front, images are batch fetched (see Pet#images)
+    @Override
+    @EntityGraph(attributePaths = "shelter")
+    List<Pet> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "shelter")
+    Page<Pet> findAll(Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = "shelter")
+    List<Pet> findAllById(Iterable<Long> ids);
+
+    @EntityGraph(attributePaths = "shelter")
     Page<Pet> findByShelterId(Long shelterId, Pageable pageable);
 
+    @EntityGraph(attributePaths = "shelter")
+    List<Pet> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    @Query("SELECT new org.petify.shelter.dto.PetSummary(p.id, s.id, s.ownerUsername, p.archived, s.isActive) "
+            + "FROM Pet p JOIN p.shelter s WHERE p.id = :id")
+    Optional<PetSummary> findSummaryById(@Param("id") Long id);
+
+    @Query("SELECT new org.petify.shelter.dto.PetSummary(p.id, s.id, s.ownerUsername, p.archived, s.isActive) "
+            + "FROM Pet p JOIN p.shelter s WHERE p.id IN :ids")
+    List<PetSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.id FROM Pet p ORDER BY p.id")
+    List<Long> findAllIds();
+
+    @Query("SELECT p.id FROM Pet p WHERE p.id > :afterId ORDER BY p.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    // a server-side cursor, only honoured by the Postgres driver inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Pet p JOIN FETCH p.shelter ORDER BY p.id")
+    Stream<Pet> streamAllOrderById();
+
     Optional<List<Pet>> findByShelterId(Long shelterId);
+
+    @Modifying
+    @Query(
+            value = "UPDATE pets "
+                    + "SET shuffle_key = FLOOR(RANDOM() * " + Pet.SHUFFLE_KEY_BOUND + ") "
+                    + "WHERE shuffle_key IS NULL",
+            nativeQuery = true
+    )
+    int assignMissingShuffleKeys();
+
+    @Query("SELECT new org.petify.shelter.cache.PetCandidate(p.id, p.shuffleKey, p.age, p.type, p.vaccinated, "
+            + "p.urgent, p.sterilized, p.kidFriendly, s.id, s.isActive, s.latitude, s.longitude) "
+            + "FROM Pet p JOIN p.shelter s "
+            + "WHERE p.archived = false AND p.shuffleKey IS NOT NULL")
+    List<PetCandidate> findSwipeCandidates();
 }
@@ -1,14 +1,33 @@
 package org.petify.shelter.repository;
 
+import org.petify.shelter.cache.ShelterPoint;
+import org.petify.shelter.dto.ShelterSummary;
 import org.petify.shelter.model.Shelter;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ShelterRepository extends JpaRepository<Shelter, Long> {
 
     Optional<Shelter> getShelterByOwnerUsername(String ownerUsername);
+
+    @Query("SELECT new org.petify.shelter.dto.ShelterSummary(s.id, s.ownerUsername, s.isActive) "
+            + "FROM Shelter s WHERE s.id = :id")
+    Optional<ShelterSummary> findSummaryById(@Param("id") Long id);
+
+    @Query("SELECT new org.petify.shelter.cache.ShelterPoint(s.id, s.latitude, s.longitude) FROM Shelter s "
+            + "WHERE s.isActive = true AND s.latitude IS NOT NULL AND s.longitude IS NOT NULL")
+    List<ShelterPoint> findActiveLocations();
+
+    @Query("SELECT new org.petify.shelter.cache.ShelterPoint(s.id, s.latitude, s.longitude) FROM Shelter s "
+            + "WHERE s.isActive = true AND s.latitude BETWEEN :minLat AND :maxLat "
+            + "AND s.longitude BETWEEN :minLng AND :maxLng")
+    List<ShelterPoint> findActiveLocationsWithin(@Param("minLat") double minLat, @Param("maxLat") double maxLat,
+                                                 @Param("minLng") double minLng, @Param("maxLng") double maxLng);
 }
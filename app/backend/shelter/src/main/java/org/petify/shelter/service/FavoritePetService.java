@@ -1,5 +1,6 @@
 package org.petify.shelter.service;
 
+import org.petify.shelter.cache.SeenPetCache;
 import org.petify.shelter.client.AchievementClient;
 import org.petify.shelter.dto.PetResponseWithImages;
 import org.petify.shelter.enums.MatchType;
@@ -11,6 +12,7 @@ import org.petify.shelter.model.FavoritePet;
 import org.petify.shelter.model.Pet;
 import org.petify.shelter.repository.FavoritePetRepository;
 import org.petify.shelter.repository.PetRepository;
+import org.petify.shelter.util.TransactionCallbacks;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,6 +29,8 @@ public class FavoritePetService {
     private final PetRepository petRepository;
     private final PetMapper petMapper;
     private final AchievementClient achievementClient;
+    private final SeenPetCache seenPetCache;
+    private final SwipeDeckService swipeDeckService;
 
     private void upsertFavoritePet(String username, Long petId, MatchType status) {
         Pet pet = petRepository.findById(petId)
@@ -48,6 +52,10 @@ public class FavoritePetService {
 
         favoritePet.setStatus(status);
         favoritePetRepository.save(favoritePet);
+        TransactionCallbacks.afterCommit(() -> {
+            seenPetCache.markSeen(username, petId);
+            swipeDeckService.pop(username, petId);
+        });
     }
 
     @Transactional
@@ -1,11 +1,23 @@
 package org.petify.shelter.service;
 
+import org.petify.shelter.cache.PetCandidateIndex;
+import org.petify.shelter.cache.PetSummaryCache;
+import org.petify.shelter.cache.SeenPetCache;
+import org.petify.shelter.cache.ShelterGrid;
+import org.petify.shelter.cache.ShelterGrid.ShelterDistance;
+import org.petify.shelter.cache.SwipeFilter;
+import org.petify.shelter.dto.NearbyPetsResponse;
+import org.petify.shelter.dto.PetIdPageResponse;
 import org.petify.shelter.dto.PetImageResponse;
+import org.petify.shelter.dto.PetPageResponse;
 import org.petify.shelter.dto.PetRequest;
 import org.petify.shelter.dto.PetResponse;
 import org.petify.shelter.dto.PetResponseWithImages;
+import org.petify.shelter.dto.PetSummary;
+import org.petify.shelter.dto.ShelterSummary;
 import org.petify.shelter.dto.SwipeResponse;
 import org.petify.shelter.enums.PetType;
+import org.petify.shelter.exception.InvalidCursorException;
 import org.petify.shelter.exception.PetNotFoundException;
 import org.petify.shelter.exception.ShelterNotFoundException;
 import org.petify.shelter.mapper.PetMapper;
@@ -16,10 +28,17 @@ import org.petify.shelter.repository.PetRepository;
 import org.petify.shelter.repository.ShelterRepository;
 import org.petify.shelter.specification.PetSpecification;
 
+import jakarta.persistence.EntityManager;
 import lombok.AllArgsConstructor;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -27,27 +46,45 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @AllArgsConstructor
 @Service
 public class PetService {
+    private static final int MAX_WINDOWS_PER_PAGE = 10;
+    private static final int MAX_KEYSET_PAGE_SIZE = 1000;
+    // matches the @BatchSize of Pet#images, so every streamed chunk loads its images in one query
+    private static final int STREAM_CHUNK_SIZE = 100;
+
     private final PetRepository petRepository;
-    private final ShelterRepository shelterRepository;
     private final FavoritePetRepository favoritePetRepository;
+    private final ShelterRepository shelterRepository;
     private final PetMapper petMapper;
     private final StorageService storageService;
+    private final SeenPetCache seenPetCache;
+    private final PetCandidateIndex candidateIndex;
+    private final EntityManager entityManager;
+    private final PetSummaryCache petSummaryCache;
+    private final ShelterGrid shelterGrid;
 
     public String getOwnerUsernameByPetId(Long petId) {
-        Pet pet = petRepository.findById(petId)
-                .orElseThrow(() -> new PetNotFoundException(petId));
-        return pet.getShelter().getOwnerUsername();
+        return petSummaryCache.getPetSummary(petId).ownerUsername();
     }
 
+    @Transactional(readOnly = true)
     public List<PetResponseWithImages> getAllPets() {
         return petRepository.findAll()
                 .stream()
@@ -55,6 +92,35 @@ public class PetService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public PetPageResponse getPetsAfter(Long cursor, int size) {
+        int limit = keysetPageSize(size);
+        List<Pet> pets = petRepository.findByIdGreaterThanOrderByIdAsc(cursor != null ? cursor : 0L, Limit.of(limit));
+
+        Long nextCursor = pets.size() == limit ? pets.getLast().getId() : null;
+        return new PetPageResponse(pets.stream().map(petMapper::toDtoWithImages).toList(), nextCursor);
+    }
+
+    /**
+     * Hands every pet to {@code consumer} in id order without holding more than one chunk in memory:
+     * rows come from a server-side cursor and the persistence context is cleared after each chunk.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllPets(Consumer<PetResponseWithImages> consumer) {
+        try (Stream<Pet> pets = petRepository.streamAllOrderById()) {
+            List<Pet> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+            Iterator<Pet> iterator = pets.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == STREAM_CHUNK_SIZE || !iterator.hasNext()) {
+                    chunk.stream().map(petMapper::toDtoWithImages).forEach(consumer);
+                    chunk.clear();
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
     public List<Long> getPetIdsByShelterId(Long shelterId) {
         return petRepository.findByShelterId(shelterId)
                 .orElse(Collections.emptyList())
@@ -63,39 +129,261 @@ public class PetService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public Page<PetResponseWithImages> getPets(Pageable pageable) {
         return petRepository.findAll(pageable)
                 .map(petMapper::toDtoWithImages);
     }
 
+    /**
+     * Returns the next page of the swipe feed.
+     *
+     * <p>Every pet carries a random, uniquely indexed {@code shuffle_key}, so ordering by it yields a fixed
+     * permutation of the pets table. A session starts at the position given by {@code seed} and walks the
+     * permutation forward, wrapping around once at the end. The cursor is the shuffle key of the last pet
+     * returned, which turns every page into at most two index range scans and guarantees that pages within
+     * one session are stable and never repeat.
+     *
+     * <p>Once the in-memory {@link PetCandidateIndex} is loaded the same walk is done on its bitmaps and only
+     * the picked pets are read from the database.
+     */
     @Transactional(readOnly = true)
     public SwipeResponse getFilteredPetsWithCursor(Boolean vaccinated, Boolean urgent, Boolean sterilized,
                                                    Boolean kidFriendly, Integer minAge, Integer maxAge,
                                                    PetType type, Double userLat, Double userLng, Double radiusKm,
-                                                   Long cursor, int limit, String username) {
+                                                   Long cursor, Long seed, int limit, String username) {
 
-        List<Long> favoritePetIds = favoritePetRepository.findByUsername(username)
-                .stream()
-                .map(fp -> fp.getPet().getId())
+        long sessionSeed = resolveSeed(seed, cursor);
+
+        if (candidateIndex.isReady()) {
+            SwipeFilter filter = new SwipeFilter(vaccinated, urgent, sterilized, kidFriendly, minAge, maxAge, type,
+                    userLat, userLng, radiusKm);
+            PetCandidateIndex.CandidatePage page = seenPetCache.getSeenPets(username)
+                    .map(seenPets -> candidateIndex.findPage(filter, cursor, sessionSeed, limit, seenPets))
+                    .orElseGet(() -> findUnseenCandidates(filter, cursor, sessionSeed, limit, username));
+            List<PetResponseWithImages> results = mapPetsWithDistance(findSwipeablePets(page.petIds()),
+                    userLat, userLng);
+
+            return new SwipeResponse(results, page.lastShuffleKey(), sessionSeed);
+        }
+
+        // hot users with a cached swipe history filter in memory instead of running the anti-join
+        Roaring64Bitmap seenPets = seenPetCache.getSeenPets(username).orElse(null);
+
+        Specification<Pet> spec = buildPetSpecification(vaccinated, urgent, sterilized, kidFriendly, minAge, maxAge,
+                type, userLat, userLng, radiusKm, seenPets == null ? username : null);
+
+        ShuffledPage page = findShuffledPage(spec, cursor, sessionSeed, limit, seenPets);
+
+        List<PetResponseWithImages> results = mapPetsWithDistance(page.pets(), userLat, userLng);
+
+        return new SwipeResponse(results, page.lastShuffleKey(), sessionSeed);
+    }
+
+    // without a cached history only the picked candidates are checked against the user's swipes
+    private PetCandidateIndex.CandidatePage findUnseenCandidates(SwipeFilter filter, Long cursor, long seed,
+                                                                int limit, String username) {
+        List<Long> petIds = new ArrayList<>(limit);
+        // stays null until a window returns candidates, so running out yields no cursor like the other paths
+        Long after = null;
+
+        for (int window = 0; window < MAX_WINDOWS_PER_PAGE && petIds.size() < limit; window++) {
+            int wanted = limit - petIds.size();
+            PetCandidateIndex.CandidatePage page = candidateIndex.findPage(filter, after != null ? after : cursor,
+                    seed, wanted, null);
+            if (page.petIds().isEmpty()) {
+                break;
+            }
+
+            Set<Long> swiped = username == null
+                    ? Set.of()
+                    : new HashSet<>(favoritePetRepository.findPetIdsByUsernameAndPetIdIn(username, page.petIds()));
+            page.petIds().stream()
+                    .filter(petId -> !swiped.contains(petId))
+                    .forEach(petIds::add);
+            after = page.lastShuffleKey();
+
+            if (page.petIds().size() < wanted) {
+                break;
+            }
+        }
+
+        return new PetCandidateIndex.CandidatePage(petIds, after);
+    }
+
+    private long resolveSeed(Long seed, Long cursor) {
+        if (seed != null) {
+            return Math.floorMod(seed, Pet.SHUFFLE_KEY_BOUND);
+        }
+        // clients that page without a seed keep walking the permutation from its beginning
+        return cursor == null ? ThreadLocalRandom.current().nextLong(Pet.SHUFFLE_KEY_BOUND) : 0L;
+    }
+
+    private ShuffledPage findShuffledPage(Specification<Pet> spec, Long cursor, long seed, int limit,
+                                          Roaring64Bitmap seenPets) {
+        ShuffledPage page = new ShuffledPage(new ArrayList<>(limit), null, true);
+
+        // first pass: [seed, end of permutation)
+        if (cursor == null || cursor >= seed) {
+            long after = cursor == null ? seed - 1 : cursor;
+            page = fillFromRange(page, spec, after, null, limit, seenPets);
+        }
+
+        // second pass after wrapping around: [start of permutation, seed), only once the first range is used up,
+        // otherwise the cursor would jump behind the seed and skip the rest of it
+        if (page.pets().size() < limit && page.exhausted() && seed > 0) {
+            long after = cursor != null && cursor < seed ? cursor : -1L;
+            page = fillFromRange(page, spec, after, seed, limit, seenPets);
+        }
+
+        return page;
+    }
+
+    private ShuffledPage fillFromRange(ShuffledPage page, Specification<Pet> spec, long after, Long before,
+                                       int limit, Roaring64Bitmap seenPets) {
+        Long lastShuffleKey = page.lastShuffleKey();
+        boolean exhausted = false;
+
+        for (int window = 0; window < MAX_WINDOWS_PER_PAGE && page.pets().size() < limit; window++) {
+            Specification<Pet> range = spec.and(PetSpecification.shuffleKeyGreaterThan(after));
+            if (before != null) {
+                range = range.and(PetSpecification.shuffleKeyLessThan(before));
+            }
+
+            int wanted = limit - page.pets().size();
+            List<Pet> candidates = findByShuffleKey(range, wanted);
+            if (candidates.isEmpty()) {
+                exhausted = true;
+                break;
+            }
+
+            candidates.stream()
+                    .filter(pet -> seenPets == null || !seenPets.contains(pet.getId()))
+                    .forEach(page.pets()::add);
+
+            after = candidates.getLast().getShuffleKey();
+            lastShuffleKey = after;
+
+            if (candidates.size() < wanted) {
+                exhausted = true;
+                break;
+            }
+        }
+
+        return new ShuffledPage(page.pets(), lastShuffleKey, exhausted);
+    }
+
+    private List<Pet> findByShuffleKey(Specification<Pet> spec, int limit) {
+        return petRepository.findBy(spec, query -> query
+                .sortBy(Sort.by("shuffleKey"))
+                .limit(limit)
+                .all());
+    }
+
+    private record ShuffledPage(List<Pet> pets, Long lastShuffleKey, boolean exhausted) {}
+
+    // the index may lag behind writes made on other instances, so pets that stopped being swipeable are dropped
+    private List<Pet> findSwipeablePets(List<Long> petIds) {
+        Map<Long, Pet> pets = petRepository.findAllById(petIds).stream()
+                .collect(Collectors.toMap(Pet::getId, Function.identity()));
+
+        return petIds.stream()
+                .map(pets::get)
+                .filter(pet -> pet != null && !pet.isArchived())
+                .filter(pet -> Boolean.TRUE.equals(pet.getShelter().getIsActive()))
                 .toList();
+    }
 
+    /**
+     * Returns the next page of pets ordered by how far their shelter is from the user, nearest first.
+     *
+     * <p>Shelters come from {@link ShelterGrid} one ring of {@code petify.nearby.ring-km} at a time, so a page
+     * only reads the pets of the shelters in the rings it actually needs. Pets are ordered by shelter distance,
+     * shelter id and pet id, and the cursor is that triple for the last pet returned. Each ring is one query
+     * that sorts by the grid's shelter order in SQL and fetches no more pets than the page still needs.
+     */
+    @Transactional(readOnly = true)
+    public NearbyPetsResponse getNearbyPets(Boolean vaccinated, Boolean urgent, Boolean sterilized,
+                                            Boolean kidFriendly, Integer minAge, Integer maxAge, PetType type,
+                                            double userLat, double userLng, Double radiusKm, String cursor,
+                                            int size) {
+        NearbyCursor after = NearbyCursor.parse(cursor);
+        int limit = keysetPageSize(size);
+        double maxKm = radiusKm != null ? Math.min(radiusKm, shelterGrid.maxRadiusKm()) : shelterGrid.maxRadiusKm();
+        double ringKm = shelterGrid.ringKm();
         Specification<Pet> spec = buildPetSpecification(vaccinated, urgent, sterilized, kidFriendly, minAge, maxAge,
-                type, favoritePetIds, cursor);
+                type, null, null, null, null);
+
+        List<Pet> pets = new ArrayList<>(limit);
+        NearbyCursor last = null;
+        int ring = after == null ? 0 : (int) (after.distanceKm() / ringKm);
+        for (; pets.size() < limit && ring * ringKm <= maxKm; ring++) {
+            double toKm = Math.min((ring + 1) * ringKm, Math.nextUp(maxKm));
+            List<ShelterDistance> shelters = shelterGrid.findInRing(userLat, userLng, ring * ringKm, toKm).stream()
+                    .filter(shelter -> after == null || !after.isPastShelter(shelter))
+                    .toList();
+            if (shelters.isEmpty()) {
+                continue;
+            }
 
-        Pageable pageable = PageRequest.of(0, limit);
-        Page<Pet> page = petRepository.findAll(spec, pageable);
+            List<Long> shelterIds = shelters.stream().map(ShelterDistance::shelterId).toList();
+            Specification<Pet> ringSpec = spec.and(PetSpecification.inShelters(shelterIds))
+                    .and(PetSpecification.orderedByShelters(shelterIds));
+            if (after != null) {
+                ringSpec = ringSpec.and(PetSpecification.notUpToPetOfShelter(after.shelterId(), after.petId()));
+            }
+            int remaining = limit - pets.size();
+            List<Pet> ringPets = petRepository.findBy(ringSpec, query -> query.limit(remaining).all());
+            if (ringPets.isEmpty()) {
+                continue;
+            }
 
-        List<PetResponseWithImages> results = filterAndMapPets(page.getContent(), userLat, userLng, radiusKm);
+            pets.addAll(ringPets);
+            Pet lastPet = ringPets.getLast();
+            ShelterDistance lastShelter = shelters.get(shelterIds.indexOf(lastPet.getShelter().getId()));
+            last = new NearbyCursor(lastShelter.distanceKm(), lastShelter.shelterId(), lastPet.getId());
+        }
+
+        String nextCursor = pets.size() == limit ? last.toString() : null;
+        return new NearbyPetsResponse(mapPetsWithDistance(pets, userLat, userLng), nextCursor);
+    }
 
-        Long nextCursor = results.isEmpty() ? null : page.getContent().getLast().getId();
+    private record NearbyCursor(double distanceKm, long shelterId, long petId) {
+
+        static NearbyCursor parse(String cursor) {
+            if (cursor == null) {
+                return null;
+            }
+
+            String[] parts = cursor.split(":");
+            if (parts.length != 3) {
+                throw new InvalidCursorException(cursor);
+            }
+            try {
+                return new NearbyCursor(Double.parseDouble(parts[0]), Long.parseLong(parts[1]),
+                        Long.parseLong(parts[2]));
+            } catch (NumberFormatException e) {
+                throw new InvalidCursorException(cursor);
+            }
+        }
 
-        return new SwipeResponse(results, nextCursor);
+        // every pet of this shelter was already returned
+        boolean isPastShelter(ShelterDistance shelter) {
+            int byDistance = Double.compare(shelter.distanceKm(), distanceKm);
+            return byDistance < 0 || byDistance == 0 && shelter.shelterId() < shelterId;
+        }
+
+        @Override
+        public String toString() {
+            return distanceKm + ":" + shelterId + ":" + petId;
+        }
     }
 
     private Specification<Pet> buildPetSpecification(Boolean vaccinated, Boolean urgent, Boolean sterilized,
                                                      Boolean kidFriendly, Integer minAge, Integer maxAge,
-                                                     PetType type, List<Long> favoritePetIds, Long cursor) {
-        Specification<Pet> spec = Specification.where(PetSpecification.hasVaccinated(vaccinated))
+                                                     PetType type, Double userLat, Double userLng, Double radiusKm,
+                                                     String swipedBy) {
+        return Specification.where(PetSpecification.hasVaccinated(vaccinated))
                 .and(PetSpecification.isUrgent(urgent))
                 .and(PetSpecification.isSterilized(sterilized))
                 .and(PetSpecification.isKidFriendly(kidFriendly))
@@ -103,30 +391,22 @@ public class PetService {
                 .and(PetSpecification.hasType(type))
                 .and(PetSpecification.isNotArchived())
                 .and(PetSpecification.hasActiveShelter())
-                .and(PetSpecification.notInFavorites(favoritePetIds))
-                .and(PetSpecification.randomOrder());
-
-        if (cursor != null) {
-            spec = spec.and((root, query, cb) -> cb.greaterThan(root.get("id"), cursor));
-        }
-
-        return spec;
+                .and(PetSpecification.withinRadius(userLat, userLng, radiusKm))
+                .and(PetSpecification.notSwipedBy(swipedBy));
     }
 
-    private List<PetResponseWithImages> filterAndMapPets(List<Pet> pets, Double userLat, Double userLng, Double radiusKm) {
-        Stream<Pet> stream = pets.stream();
-
-        if (userLat != null && userLng != null && radiusKm != null) {
-            stream = stream.filter(p -> {
-                Shelter s = p.getShelter();
-                if (s == null || s.getLatitude() == null || s.getLongitude() == null) {
-                    return false;
-                }
-                return distance(userLat, userLng, s.getLatitude(), s.getLongitude()) <= radiusKm;
-            });
-        }
+    /**
+     * Pets created before the shuffle key existed get one on startup so they show up in the swipe feed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional
+    public void assignMissingShuffleKeys() {
+        petRepository.assignMissingShuffleKeys();
+    }
 
-        return stream.map(pet -> {
+    private List<PetResponseWithImages> mapPetsWithDistance(List<Pet> pets, Double userLat, Double userLng) {
+        return pets.stream().map(pet -> {
             // Oblicz odległość dla każdego pet-a jeśli mamy współrzędne użytkownika
             Double calculatedDistance = null;
             if (userLat != null && userLng != null) {
@@ -159,18 +439,31 @@ public class PetService {
     }
 
     public List<Long> getAllPetIds() {
-        return petRepository.findAll()
-                .stream()
-                .map(Pet::getId)
-                .collect(Collectors.toList());
+        return petRepository.findAllIds();
+    }
+
+    public PetIdPageResponse getPetIdsAfter(Long cursor, int size) {
+        int limit = keysetPageSize(size);
+        List<Long> ids = petRepository.findIdsAfter(cursor != null ? cursor : 0L, Limit.of(limit));
+
+        Long nextCursor = ids.size() == limit ? ids.getLast() : null;
+        return new PetIdPageResponse(ids, nextCursor);
+    }
+
+    private static int keysetPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_KEYSET_PAGE_SIZE));
     }
 
     public boolean isPetArchived(Long petId) {
-        Pet pet = petRepository.findById(petId)
-                .orElseThrow(() -> new PetNotFoundException(petId));
-        return pet.isArchived();
+        return petSummaryCache.getPetSummary(petId).archived();
     }
 
+    // ids without a pet are left out of the result
+    public List<PetSummary> getPetStatuses(Collection<Long> petIds) {
+        return petRepository.findSummariesByIdIn(petIds);
+    }
+
+    @Transactional(readOnly = true)
     public Page<PetResponseWithImages> getAllShelterPets(Long shelterId, Pageable pageable) {
         return petRepository.findByShelterId(shelterId, pageable)
                 .map(petMapper::toDtoWithImages);
@@ -189,6 +482,7 @@ public class PetService {
         }
 
         Pet savedPet = petRepository.save(pet);
+        candidateIndex.upsert(savedPet);
 
         return petMapper.toDto(savedPet);
     }
@@ -230,6 +524,8 @@ public class PetService {
         }
 
         Pet updatedPet = petRepository.save(existingPet);
+        candidateIndex.upsert(updatedPet);
+        petSummaryCache.evictPet(petId);
 
         return petMapper.toDto(updatedPet);
     }
@@ -240,6 +536,8 @@ public class PetService {
                 .orElseThrow(() -> new PetNotFoundException(petId));
 
         petRepository.delete(pet);
+        candidateIndex.remove(petId);
+        petSummaryCache.evictPet(petId);
     }
 
     @Transactional
@@ -249,20 +547,21 @@ public class PetService {
 
         pet.setArchived(true);
         Pet savedPet = petRepository.save(pet);
+        candidateIndex.upsert(savedPet);
+        petSummaryCache.evictPet(petId);
 
         return petMapper.toDto(savedPet);
     }
 
     public HttpStatus validatePetForDonations(Long shelterId, Long petId) {
         try {
-            Shelter shelter = shelterRepository.findById(shelterId)
-                    .orElseThrow(() -> new ShelterNotFoundException(shelterId));
+            ShelterSummary shelter = petSummaryCache.getShelterSummary(shelterId);
 
-            if (!shelter.getIsActive()) {
+            if (!shelter.active()) {
                 return HttpStatus.FORBIDDEN;
             }
 
-            PetResponseWithImages pet = getPetById(petId);
+            PetSummary pet = petSummaryCache.getPetSummary(petId);
 
             if (!pet.shelterId().equals(shelterId)) {
                 return HttpStatus.NOT_FOUND;
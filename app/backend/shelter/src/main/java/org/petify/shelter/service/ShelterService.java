@@ -1,7 +1,11 @@
 package org.petify.shelter.service;
 
+import org.petify.shelter.cache.PetCandidateIndex;
+import org.petify.shelter.cache.PetSummaryCache;
+import org.petify.shelter.cache.ShelterGrid;
 import org.petify.shelter.dto.ShelterRequest;
 import org.petify.shelter.dto.ShelterResponse;
+import org.petify.shelter.dto.ShelterSummary;
 import org.petify.shelter.exception.RoutingException;
 import org.petify.shelter.exception.ShelterAlreadyExistsException;
 import org.petify.shelter.exception.ShelterByOwnerNotFoundException;
@@ -33,6 +37,9 @@ public class ShelterService {
     private final ShelterRepository shelterRepository;
     private final ShelterMapper shelterMapper;
     private final StorageService storageService;
+    private final PetCandidateIndex candidateIndex;
+    private final PetSummaryCache petSummaryCache;
+    private final ShelterGrid shelterGrid;
 
     public Page<ShelterResponse> getShelters(Pageable pageable) {
         Page<Shelter> shelters = shelterRepository.findAll(pageable);
@@ -60,7 +67,9 @@ public class ShelterService {
         Shelter shelter = shelterMapper.toEntity(input);
         shelter.setOwnerUsername(username);
 
-        return setIfImageIncluded(file, shelter);
+        ShelterResponse response = setIfImageIncluded(file, shelter);
+        shelterGrid.upsert(shelter);
+        return response;
     }
 
     @Transactional
@@ -74,6 +83,9 @@ public class ShelterService {
         existingShelter.setPhoneNumber(input.phoneNumber());
         existingShelter.setLatitude(input.latitude());
         existingShelter.setLongitude(input.longitude());
+        candidateIndex.updateShelter(existingShelter);
+        shelterGrid.upsert(existingShelter);
+        petSummaryCache.evictShelter(shelterId);
 
         return setIfImageIncluded(file, existingShelter);
     }
@@ -95,6 +107,9 @@ public class ShelterService {
                 .orElseThrow(() -> new ShelterNotFoundException(shelterId));
 
         shelterRepository.delete(shelter);
+        candidateIndex.removeShelter(shelterId);
+        shelterGrid.remove(shelterId);
+        petSummaryCache.evictShelter(shelterId);
     }
 
     public void activateShelter(Long shelterId) {
@@ -103,6 +118,9 @@ public class ShelterService {
 
         existingShelter.setIsActive(true);
         shelterRepository.save(existingShelter);
+        candidateIndex.updateShelter(existingShelter);
+        shelterGrid.upsert(existingShelter);
+        petSummaryCache.evictShelter(shelterId);
     }
 
     public void deactivateShelter(Long shelterId) {
@@ -111,6 +129,9 @@ public class ShelterService {
 
         existingShelter.setIsActive(false);
         shelterRepository.save(existingShelter);
+        candidateIndex.updateShelter(existingShelter);
+        shelterGrid.upsert(existingShelter);
+        petSummaryCache.evictShelter(shelterId);
     }
 
     public String getRouteToShelter(double fromLat, double fromLon, ShelterResponse shelter)
@@ -159,9 +180,9 @@ public class ShelterService {
 
     public HttpStatus validateShelterForDonations(Long shelterId) {
         try {
-            ShelterResponse shelter = getShelterById(shelterId);
+            ShelterSummary shelter = petSummaryCache.getShelterSummary(shelterId);
 
-            if (!shelter.isActive()) {
+            if (!shelter.active()) {
                 return HttpStatus.FORBIDDEN;
             }
 
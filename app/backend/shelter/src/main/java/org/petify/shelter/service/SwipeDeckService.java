@@ -0,0 +1,230 @@
+package org.petify.shelter.service;
+
+import org.petify.shelter.cache.SwipeFilter;
+import org.petify.shelter.dto.PetResponseWithImages;
+import org.petify.shelter.dto.SwipeResponse;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-user queue of the next pets of the swipe feed, so showing the next card is a memory lookup.
+ *
+ * <p>A deck walks the same shuffled permutation as {@code /pets/filter} for one set of filters. Like, dislike
+ * and support take the pet off the deck once their transaction commits, and whenever a deck drops below
+ * {@code low-water} it is topped up to {@code size} in the background with a single page query. Decks are
+ * dropped when the filters change, after {@code ttl-seconds} and, least recently used first, beyond
+ * {@code max-users}.
+ */
+@Slf4j
+@Service
+public class SwipeDeckService {
+    private final PetService petService;
+    private final Executor executor;
+    private final boolean enabled;
+    private final int deckSize;
+    private final int lowWater;
+    private final Duration ttl;
+    private final Map<String, Deck> decks;
+
+    @Autowired
+    public SwipeDeckService(PetService petService,
+                            @Value("${petify.swipe.deck.enabled:true}") boolean enabled,
+                            @Value("${petify.swipe.deck.size:30}") int deckSize,
+                            @Value("${petify.swipe.deck.low-water:10}") int lowWater,
+                            @Value("${petify.swipe.deck.ttl-seconds:600}") long ttlSeconds,
+                            @Value("${petify.swipe.deck.max-users:10000}") int maxUsers,
+                            @Value("${petify.swipe.deck.refill-threads:4}") int refillThreads) {
+        this(petService, refillExecutor(refillThreads), enabled, deckSize, lowWater, ttlSeconds, maxUsers);
+    }
+
+    SwipeDeckService(PetService petService, Executor executor, boolean enabled, int deckSize, int lowWater,
+                     long ttlSeconds, int maxUsers) {
+        this.petService = petService;
+        this.executor = executor;
+        this.enabled = enabled;
+        this.deckSize = deckSize;
+        this.lowWater = Math.min(lowWater, deckSize);
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.decks = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Deck> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    // refills that do not fit in the queue are dropped, the next swipe or deck read schedules them again
+    private static ExecutorService refillExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(1000),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "swipe-deck-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the first {@code count} pets of the user's deck without taking them off. Only an empty or new
+     * deck is filled on the calling thread.
+     */
+    public List<PetResponseWithImages> peek(String username, SwipeFilter filter, int count) {
+        int limit = Math.max(1, Math.min(count, deckSize));
+        if (!enabled) {
+            return findPage(filter, null, null, limit, username).pets();
+        }
+
+        Deck deck = deckFor(username, filter);
+        if (deck.needsRefill(limit)) {
+            refill(username, deck, limit);
+        }
+
+        List<PetResponseWithImages> top = deck.peek(limit);
+        refillAsync(username, deck);
+        return top;
+    }
+
+    /**
+     * Takes a swiped pet off the user's deck and tops the deck up in the background if it runs low.
+     */
+    public void pop(String username, Long petId) {
+        if (!enabled || username == null) {
+            return;
+        }
+
+        Deck deck;
+        synchronized (decks) {
+            deck = decks.get(username);
+        }
+
+        if (deck != null) {
+            deck.remove(petId);
+            refillAsync(username, deck);
+        }
+    }
+
+    private Deck deckFor(String username, SwipeFilter filter) {
+        synchronized (decks) {
+            Deck deck = decks.get(username);
+            if (deck == null || !deck.filter.equals(filter) || deck.isExpired()) {
+                deck = new Deck(filter, ThreadLocalRandom.current().nextLong(Long.MAX_VALUE));
+                decks.put(username, deck);
+            }
+            return deck;
+        }
+    }
+
+    private void refillAsync(String username, Deck deck) {
+        if (deck.needsRefill(lowWater) && !deck.refillLock.isLocked()) {
+            executor.execute(() -> {
+                if (deck.refillLock.tryLock()) {
+                    try {
+                        topUp(username, deck, lowWater);
+                    } catch (RuntimeException e) {
+                        log.warn("Could not refill swipe deck of user {}", username, e);
+                    } finally {
+                        deck.refillLock.unlock();
+                    }
+                }
+            });
+        }
+    }
+
+    // waits for a refill already running in the background instead of querying twice
+    private void refill(String username, Deck deck, int minimum) {
+        deck.refillLock.lock();
+        try {
+            topUp(username, deck, minimum);
+        } finally {
+            deck.refillLock.unlock();
+        }
+    }
+
+    private void topUp(String username, Deck deck, int minimum) {
+        Long cursor;
+        int wanted;
+        synchronized (deck) {
+            if (!deck.needsRefill(minimum)) {
+                return;
+            }
+            cursor = deck.cursor;
+            wanted = deckSize - deck.pets.size();
+        }
+
+        SwipeResponse page = findPage(deck.filter, cursor, deck.seed, wanted, username);
+
+        synchronized (deck) {
+            page.pets().forEach(deck.pets::addLast);
+            if (page.nextCursor() != null) {
+                deck.cursor = page.nextCursor();
+            } else {
+                deck.exhausted = true;
+            }
+        }
+    }
+
+    private SwipeResponse findPage(SwipeFilter filter, Long cursor, Long seed, int limit, String username) {
+        return petService.getFilteredPetsWithCursor(filter.vaccinated(), filter.urgent(), filter.sterilized(),
+                filter.kidFriendly(), filter.minAge(), filter.maxAge(), filter.type(), filter.userLat(),
+                filter.userLng(), filter.radiusKm(), cursor, seed, limit, username);
+    }
+
+    private final class Deck {
+        private final SwipeFilter filter;
+        private final long seed;
+        private final Instant createdAt = Instant.now();
+        private final Deque<PetResponseWithImages> pets = new ArrayDeque<>();
+        private final ReentrantLock refillLock = new ReentrantLock();
+        private Long cursor;
+        private boolean exhausted;
+
+        private Deck(SwipeFilter filter, long seed) {
+            this.filter = filter;
+            this.seed = seed;
+        }
+
+        private boolean isExpired() {
+            return createdAt.plus(ttl).isBefore(Instant.now());
+        }
+
+        private synchronized boolean needsRefill(int minimum) {
+            return !exhausted && pets.size() < minimum;
+        }
+
+        private synchronized List<PetResponseWithImages> peek(int count) {
+            return pets.stream().limit(count).toList();
+        }
+
+        private synchronized void remove(Long petId) {
+            pets.removeIf(pet -> pet.id().equals(petId));
+        }
+    }
+}
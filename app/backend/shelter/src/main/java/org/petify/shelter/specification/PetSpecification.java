@@ -1,14 +1,26 @@
 package org.petify.shelter.specification;
 
 import org.petify.shelter.enums.PetType;
+import org.petify.shelter.model.FavoritePet;
 import org.petify.shelter.model.Pet;
 
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 public class PetSpecification {
 
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE_LATITUDE = Math.PI * EARTH_RADIUS_KM / 180.0;
+
     public static Specification<Pet> hasVaccinated(Boolean vaccinated) {
         return (root, query, cb) -> vaccinated == null ? null : cb.equal(root.get("vaccinated"), vaccinated);
     }
@@ -51,18 +63,104 @@ public class PetSpecification {
         return (root, query, cb) -> cb.isTrue(root.get("shelter").get("isActive"));
     }
 
-    public static Specification<Pet> notInFavorites(List<Long> favoriteIds) {
-        return (root, query, cb) -> favoriteIds.isEmpty() ? null : cb.not(root.get("id").in(favoriteIds));
+    /**
+     * Keeps pets whose shelter lies within {@code radiusKm} of the given point. The latitude/longitude
+     * bounding box lets Postgres narrow shelters down with the {@code idx_shelters_lat_lng} index before
+     * the exact great-circle check runs on the remaining rows.
+     */
+    public static Specification<Pet> withinRadius(Double lat, Double lng, Double radiusKm) {
+        return (root, query, cb) -> {
+            if (lat == null || lng == null || radiusKm == null) {
+                return null;
+            }
+
+            Path<Double> shelterLat = root.get("shelter").get("latitude");
+            Path<Double> shelterLng = root.get("shelter").get("longitude");
+
+            List<Predicate> predicates = new ArrayList<>();
+
+            double deltaLat = radiusKm / KM_PER_DEGREE_LATITUDE;
+            predicates.add(cb.between(shelterLat, lat - deltaLat, lat + deltaLat));
+
+            // widest longitude difference on the circle, reached north or south of lat; close to the poles or
+            // across the antimeridian the longitude box degenerates, skip it there
+            double sinAngle = Math.sin(radiusKm / EARTH_RADIUS_KM);
+            double cosLat = Math.cos(Math.toRadians(lat));
+            if (Math.abs(lat) + deltaLat < 90.0 && sinAngle < cosLat) {
+                double deltaLng = Math.toDegrees(Math.asin(sinAngle / cosLat));
+                if (lng - deltaLng >= -180.0 && lng + deltaLng <= 180.0) {
+                    predicates.add(cb.between(shelterLng, lng - deltaLng, lng + deltaLng));
+                }
+            }
+
+            // spherical law of cosines, compared on the cosine side to avoid acos() in SQL
+            Expression<Double> latRad = cb.function("radians", Double.class, shelterLat);
+            Expression<Double> deltaLngRad = cb.diff(cb.function("radians", Double.class, shelterLng),
+                    Math.toRadians(lng));
+            Expression<Double> cosAngle = cb.sum(
+                    cb.prod(Math.sin(Math.toRadians(lat)), cb.function("sin", Double.class, latRad)),
+                    cb.prod(cb.prod(Math.cos(Math.toRadians(lat)), cb.function("cos", Double.class, latRad)),
+                            cb.function("cos", Double.class, deltaLngRad)));
+            predicates.add(cb.greaterThanOrEqualTo(cosAngle, Math.cos(radiusKm / EARTH_RADIUS_KM)));
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
     }
 
-    public static Specification<Pet> idGreaterThan(Long id) {
-        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    /**
+     * Correlated anti-join against the user's swipe history, answered by the unique
+     * {@code favorite_pets(username, pet_id)} index instead of binding every swiped id as a parameter.
+     */
+    public static Specification<Pet> notSwipedBy(String username) {
+        return (root, query, cb) -> {
+            if (username == null) {
+                return null;
+            }
+
+            Subquery<Integer> swiped = query.subquery(Integer.class);
+            Root<FavoritePet> favorite = swiped.from(FavoritePet.class);
+            swiped.select(cb.literal(1))
+                    .where(cb.equal(favorite.get("username"), username),
+                            cb.equal(favorite.get("pet"), root));
+
+            return cb.not(cb.exists(swiped));
+        };
+    }
+
+    public static Specification<Pet> inShelters(Collection<Long> shelterIds) {
+        return (root, query, cb) -> root.get("shelter").get("id").in(shelterIds);
     }
 
-    public static Specification<Pet> randomOrder() {
+    /**
+     * Sorts pets by the position of their shelter in {@code shelterIds}, then by id. Adds no predicate, so
+     * callers must leave the query unsorted for the order to apply.
+     */
+    public static Specification<Pet> orderedByShelters(List<Long> shelterIds) {
         return (root, query, cb) -> {
-            query.orderBy(cb.asc(cb.function("RANDOM", Double.class)));
-            return cb.conjunction();
+            CriteriaBuilder.SimpleCase<Long, Integer> position = cb.selectCase(root.get("shelter").<Long>get("id"));
+            for (int i = 0; i < shelterIds.size(); i++) {
+                position.when(shelterIds.get(i), i);
+            }
+            query.orderBy(cb.asc(position.otherwise(shelterIds.size())), cb.asc(root.get("id")));
+            return null;
         };
     }
+
+    public static Specification<Pet> notUpToPetOfShelter(Long shelterId, Long petId) {
+        return (root, query, cb) -> cb.not(cb.and(
+                cb.equal(root.get("shelter").get("id"), shelterId),
+                cb.lessThanOrEqualTo(root.get("id"), petId)));
+    }
+
+    public static Specification<Pet> idGreaterThan(Long id) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
+    public static Specification<Pet> shuffleKeyGreaterThan(Long shuffleKey) {
+        return (root, query, cb) -> cb.greaterThan(root.get("shuffleKey"), shuffleKey);
+    }
+
+    public static Specification<Pet> shuffleKeyLessThan(Long shuffleKey) {
+        return (root, query, cb) -> cb.lessThan(root.get("shuffleKey"), shuffleKey);
+    }
 }
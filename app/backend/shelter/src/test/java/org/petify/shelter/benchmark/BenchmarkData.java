@@ -0,0 +1,29 @@
+package org.petify.shelter.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Bulk fixtures for the swipe feed benchmarks, generated inside Postgres so seeding 1M pets takes seconds.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static void seedShelters(JdbcTemplate jdbcTemplate, int shelters) {
+        jdbcTemplate.update("INSERT INTO shelters (owner_username, name, is_active, latitude, longitude) "
+                + "SELECT 'bench-owner-' || g, 'Bench shelter ' || g, true, "
+                + "49 + random() * 5, 14 + random() * 10 "
+                + "FROM generate_series(1, ?) g", shelters);
+    }
+
+    static void seedPets(JdbcTemplate jdbcTemplate, int shelters, int from, int to) {
+        jdbcTemplate.update("INSERT INTO pets (name, type, age, is_vaccinated, is_urgent, is_sterilized, "
+                + "is_kid_friendly, is_archived, size, shelter_id, shuffle_key) "
+                + "SELECT 'Pet ' || g, (ARRAY['DOG','CAT','OTHER'])[1 + g % 3], g % 15, g % 2 = 0, g % 7 = 0, "
+                + "g % 3 = 0, g % 5 <> 0, g % 20 = 0, (ARRAY['SMALL','MEDIUM','BIG'])[1 + g % 3], "
+                + "(SELECT min(id) FROM shelters) + g % ?, FLOOR(random() * 9007199254740992) "
+                + "FROM generate_series(?, ?) g "
+                + "ON CONFLICT DO NOTHING", shelters, from + 1, to);
+    }
+}
@@ -0,0 +1,114 @@
+package org.petify.shelter.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.petify.shelter.ShelterApplication;
+import org.petify.shelter.cache.PetCandidateIndex;
+import org.petify.shelter.dto.SwipeResponse;
+import org.petify.shelter.enums.PetType;
+import org.petify.shelter.service.PetService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a filtered swipe page answered by {@link PetCandidateIndex} with the Specification path over the
+ * same Postgres data. Both variants go through {@code PetService}, so hydrating the picked pets is included.
+ * Run it from the test classpath, e.g.
+ * {@code mvn -pl shelter test-compile org.codehaus.mojo:exec-maven-plugin:3.5.0:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.petify.shelter.benchmark.SwipeCandidateIndexBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SwipeCandidateIndexBenchmark {
+
+    private static final int SHELTERS = 100;
+    private static final int PAGE_SIZE = 15;
+
+    @Param({"100000", "1000000"})
+    private int pets;
+
+    @Param({"true", "false"})
+    private boolean candidateIndex;
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+    private PetService petService;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        postgres = new PostgreSQLContainer<>("postgres:17")
+                .withDatabaseName("petify-bench")
+                .withUsername("test")
+                .withPassword("test");
+        postgres.start();
+
+        context = new SpringApplicationBuilder(ShelterApplication.class)
+                .profiles("test")
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "spring.jpa.show-sql=false",
+                        "petify.swipe.candidate-index.enabled=" + candidateIndex)
+                .run();
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkData.seedShelters(jdbcTemplate, SHELTERS);
+        BenchmarkData.seedPets(jdbcTemplate, SHELTERS, 0, pets);
+        jdbcTemplate.execute("ANALYZE");
+
+        // pets were inserted behind the index's back
+        context.getBean(PetCandidateIndex.class).rebuild();
+        petService = context.getBean(PetService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public SwipeResponse filteredFirstPage() {
+        long seed = ThreadLocalRandom.current().nextLong(Long.MAX_VALUE);
+        return petService.getFilteredPetsWithCursor(true, null, null, true, 1, 8, PetType.DOG,
+                null, null, null, null, seed, PAGE_SIZE, "benchmark-user");
+    }
+
+    @Benchmark
+    public SwipeResponse unfilteredFirstPage() {
+        long seed = ThreadLocalRandom.current().nextLong(Long.MAX_VALUE);
+        return petService.getFilteredPetsWithCursor(null, null, null, null, null, null, null,
+                null, null, null, null, seed, PAGE_SIZE, "benchmark-user");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SwipeCandidateIndexBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
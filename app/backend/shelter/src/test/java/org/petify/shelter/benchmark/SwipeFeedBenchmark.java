@@ -0,0 +1,86 @@
+package org.petify.shelter.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.petify.shelter.dto.SwipeResponse;
+import org.petify.shelter.integration.BaseIntegrationTest;
+import org.petify.shelter.service.PetService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures swipe feed page latency of the database path while the pets table grows from 10k to 1M rows.
+ * Not picked up by the default surefire includes, run it explicitly with
+ * {@code mvn test -pl shelter -Dtest=SwipeFeedBenchmark}.
+ */
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@TestPropertySource(properties = "petify.swipe.candidate-index.enabled=false")
+class SwipeFeedBenchmark extends BaseIntegrationTest {
+
+    private static final int[] TABLE_SIZES = {10_000, 100_000, 1_000_000};
+    private static final int SHELTERS = 100;
+    private static final int PAGES_PER_SESSION = 20;
+    private static final int SESSIONS = 10;
+    private static final int PAGE_SIZE = 15;
+
+    @Autowired
+    private PetService petService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void swipeLatencyStaysFlatAsPetsTableGrows() {
+        BenchmarkData.seedShelters(jdbcTemplate, SHELTERS);
+
+        Map<Integer, Double> medianMillis = new LinkedHashMap<>();
+        int seeded = 0;
+        for (int size : TABLE_SIZES) {
+            BenchmarkData.seedPets(jdbcTemplate, SHELTERS, seeded, size);
+            seeded = size;
+            jdbcTemplate.execute("ANALYZE pets");
+
+            // warm up plans and the connection pool before measuring
+            runSessions(2);
+            medianMillis.put(size, median(runSessions(SESSIONS)));
+        }
+
+        medianMillis.forEach((size, millis) ->
+                System.out.printf("swipe page, %,9d pets: median %.3f ms%n", size, millis));
+
+        double smallest = medianMillis.get(TABLE_SIZES[0]);
+        double largest = medianMillis.get(TABLE_SIZES[TABLE_SIZES.length - 1]);
+        assertThat(largest).isLessThan(Math.max(smallest * 5, 5.0));
+    }
+
+    private double[] runSessions(int sessions) {
+        double[] samples = new double[sessions * PAGES_PER_SESSION];
+        int sample = 0;
+        for (int session = 0; session < sessions; session++) {
+            Long cursor = null;
+            Long seed = null;
+            for (int page = 0; page < PAGES_PER_SESSION; page++) {
+                long start = System.nanoTime();
+                SwipeResponse response = petService.getFilteredPetsWithCursor(null, null, null, null,
+                        null, null, null, null, null, null, cursor, seed, PAGE_SIZE, "benchmark-user");
+                samples[sample++] = (System.nanoTime() - start) / 1_000_000.0;
+                cursor = response.nextCursor();
+                seed = response.seed();
+            }
+        }
+        return samples;
+    }
+
+    private static double median(double[] samples) {
+        double[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,150 @@
+package org.petify.shelter.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.petify.shelter.enums.PetType;
+import org.petify.shelter.model.Pet;
+import org.petify.shelter.model.Shelter;
+import org.petify.shelter.repository.PetRepository;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PetCandidateIndexTest {
+
+    private static final SwipeFilter NO_FILTER =
+            new SwipeFilter(null, null, null, null, null, null, null, null, null, null);
+
+    @Mock
+    private PetRepository petRepository;
+
+    @Test
+    void isReady_WhenDisabled_ShouldNeverLoad() {
+        PetCandidateIndex index = new PetCandidateIndex(petRepository, false);
+
+        index.rebuild();
+
+        assertThat(index.isReady()).isFalse();
+        verifyNoInteractions(petRepository);
+    }
+
+    @Test
+    void findPage_ShouldIntersectFiltersAndSkipInactiveShelters() {
+        PetCandidateIndex index = indexOf(
+                candidate(1L, 100L, 2, PetType.DOG, true, 1L, true),
+                candidate(2L, 200L, 5, PetType.DOG, true, 1L, true),
+                candidate(3L, 300L, 2, PetType.CAT, true, 1L, true),
+                candidate(4L, 400L, 2, PetType.DOG, false, 1L, true),
+                candidate(5L, 500L, 2, PetType.DOG, true, 2L, false));
+
+        SwipeFilter filter = new SwipeFilter(true, null, null, null, 1, 3, PetType.DOG, null, null, null);
+        var page = index.findPage(filter, null, 0L, 10, null);
+
+        assertThat(page.petIds()).containsExactly(1L);
+        assertThat(page.lastShuffleKey()).isEqualTo(100L);
+    }
+
+    @Test
+    void findPage_ShouldWalkRotatedPermutationWithoutRepeats() {
+        PetCandidateIndex index = indexOf(
+                candidate(1L, 100L, 2, PetType.DOG, true, 1L, true),
+                candidate(2L, 200L, 2, PetType.DOG, true, 1L, true),
+                candidate(3L, 300L, 2, PetType.DOG, true, 1L, true),
+                candidate(4L, 400L, 2, PetType.DOG, true, 1L, true));
+
+        List<Long> seen = new ArrayList<>();
+        Long cursor = null;
+        for (int i = 0; i < 3; i++) {
+            var page = index.findPage(NO_FILTER, cursor, 250L, 2, null);
+            seen.addAll(page.petIds());
+            cursor = page.lastShuffleKey();
+        }
+
+        assertThat(seen).containsExactly(3L, 4L, 1L, 2L);
+    }
+
+    @Test
+    void findPage_ShouldMergePetsAddedAfterRebuildIntoTheWalk() {
+        PetCandidateIndex index = indexOf(
+                candidate(3L, 300L, 2, PetType.DOG, true, 1L, true),
+                candidate(1L, 100L, 2, PetType.DOG, true, 1L, true),
+                candidate(4L, 400L, 2, PetType.DOG, true, 1L, true),
+                candidate(2L, 200L, 2, PetType.DOG, true, 1L, true));
+        Shelter shelter = new Shelter();
+        shelter.setId(1L);
+        shelter.setIsActive(true);
+        Pet added = new Pet();
+        added.setId(5L);
+        added.setShuffleKey(150L);
+        added.setAge(2);
+        added.setType(PetType.DOG);
+        added.setShelter(shelter);
+        index.upsert(added);
+
+        List<Long> seen = new ArrayList<>();
+        Long cursor = null;
+        for (int i = 0; i < 3; i++) {
+            var page = index.findPage(NO_FILTER, cursor, 0L, 2, null);
+            seen.addAll(page.petIds());
+            cursor = page.lastShuffleKey();
+        }
+
+        assertThat(seen).containsExactly(1L, 5L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void findPage_ShouldSkipSeenPetsAndPetsOutsideRadius() {
+        PetCandidateIndex index = indexOf(
+                candidate(1L, 100L, 2, PetType.DOG, true, 1L, true),
+                candidate(2L, 200L, 2, PetType.DOG, true, 1L, true),
+                new PetCandidate(3L, 300L, 2, PetType.DOG, true, false, false, false, 2L, true, 54.35, 18.65));
+        Roaring64Bitmap seenPets = new Roaring64Bitmap();
+        seenPets.addLong(2L);
+
+        SwipeFilter nearWarsaw = new SwipeFilter(null, null, null, null, null, null, null, 52.23, 21.01, 50.0);
+        var page = index.findPage(nearWarsaw, null, 0L, 10, seenPets);
+
+        assertThat(page.petIds()).containsExactly(1L);
+    }
+
+    @Test
+    void updateShelter_WhenDeactivated_ShouldHideItsPetsUntilReactivated() {
+        PetCandidateIndex index = indexOf(
+                candidate(1L, 100L, 2, PetType.DOG, true, 1L, true),
+                candidate(2L, 200L, 2, PetType.DOG, true, 2L, true));
+        Shelter shelter = new Shelter();
+        shelter.setId(1L);
+        shelter.setIsActive(false);
+
+        index.updateShelter(shelter);
+        List<Long> whileInactive = index.findPage(NO_FILTER, null, 0L, 10, null).petIds();
+        shelter.setIsActive(true);
+        index.updateShelter(shelter);
+        index.remove(2L);
+        List<Long> afterReactivation = index.findPage(NO_FILTER, null, 0L, 10, null).petIds();
+
+        assertThat(whileInactive).containsExactly(2L);
+        assertThat(afterReactivation).containsExactly(1L);
+    }
+
+    private PetCandidateIndex indexOf(PetCandidate... candidates) {
+        when(petRepository.findSwipeCandidates()).thenReturn(List.of(candidates));
+        PetCandidateIndex index = new PetCandidateIndex(petRepository, true);
+        index.rebuild();
+        assertThat(index.isReady()).isTrue();
+        return index;
+    }
+
+    private static PetCandidate candidate(Long petId, Long shuffleKey, int age, PetType type, boolean vaccinated,
+                                          Long shelterId, boolean shelterActive) {
+        return new PetCandidate(petId, shuffleKey, age, type, vaccinated, false, false, false,
+                shelterId, shelterActive, 52.23, 21.01);
+    }
+}
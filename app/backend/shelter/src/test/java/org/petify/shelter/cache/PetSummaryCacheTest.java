@@ -0,0 +1,95 @@
+package org.petify.shelter.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.petify.shelter.config.CacheConfig;
+import org.petify.shelter.dto.PetSummary;
+import org.petify.shelter.exception.PetNotFoundException;
+import org.petify.shelter.repository.PetRepository;
+import org.petify.shelter.repository.ShelterRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig({CacheConfig.class, PetSummaryCache.class})
+class PetSummaryCacheTest {
+
+    private static final PetSummary SUMMARY = new PetSummary(1L, 2L, "owner1", false, true);
+
+    @MockitoBean
+    private PetRepository petRepository;
+
+    @MockitoBean
+    private ShelterRepository shelterRepository;
+
+    @Autowired
+    private PetSummaryCache petSummaryCache;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void getPetSummary_ShouldLoadOnceAndRecordHits() {
+        when(petRepository.findSummaryById(1L)).thenReturn(Optional.of(SUMMARY));
+        CacheStats before = stats();
+
+        petSummaryCache.getPetSummary(1L);
+        PetSummary cached = petSummaryCache.getPetSummary(1L);
+
+        assertThat(cached).isEqualTo(SUMMARY);
+        verify(petRepository, times(1)).findSummaryById(1L);
+        assertThat(stats().minus(before).hitCount()).isEqualTo(1);
+        assertThat(stats().minus(before).missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void evictPet_ShouldReloadOnNextLookup() {
+        when(petRepository.findSummaryById(1L)).thenReturn(Optional.of(SUMMARY));
+
+        petSummaryCache.getPetSummary(1L);
+        petSummaryCache.evictPet(1L);
+        petSummaryCache.getPetSummary(1L);
+
+        verify(petRepository, times(2)).findSummaryById(1L);
+    }
+
+    @Test
+    void evictShelter_ShouldDropPetSummaries() {
+        when(petRepository.findSummaryById(1L)).thenReturn(Optional.of(SUMMARY));
+
+        petSummaryCache.getPetSummary(1L);
+        petSummaryCache.evictShelter(2L);
+        petSummaryCache.getPetSummary(1L);
+
+        verify(petRepository, times(2)).findSummaryById(1L);
+    }
+
+    @Test
+    void getPetSummary_WhenPetNotExists_ShouldThrowAndNotCache() {
+        when(petRepository.findSummaryById(1L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> petSummaryCache.getPetSummary(1L)).isInstanceOf(PetNotFoundException.class);
+        assertThatThrownBy(() -> petSummaryCache.getPetSummary(1L)).isInstanceOf(PetNotFoundException.class);
+
+        verify(petRepository, times(2)).findSummaryById(1L);
+    }
+
+    private CacheStats stats() {
+        CaffeineCache cache = (CaffeineCache) cacheManager.getCache(PetSummaryCache.PET_SUMMARIES);
+        return cache.getNativeCache().stats();
+    }
+}
@@ -0,0 +1,55 @@
+package org.petify.shelter.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.petify.shelter.repository.FavoritePetRepository;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeenPetCacheTest {
+
+    @Mock
+    private FavoritePetRepository favoritePetRepository;
+
+    @Test
+    void getSeenPets_WhenDisabled_ShouldReturnEmptyWithoutQuerying() {
+        SeenPetCache cache = new SeenPetCache(favoritePetRepository, false, 10);
+
+        assertThat(cache.getSeenPets("user1")).isEmpty();
+        verifyNoInteractions(favoritePetRepository);
+    }
+
+    @Test
+    void getSeenPets_WhenEnabled_ShouldLoadOnceAndTrackNewSwipes() {
+        SeenPetCache cache = new SeenPetCache(favoritePetRepository, true, 10);
+        when(favoritePetRepository.findPetIdsByUsername("user1")).thenReturn(List.of(1L, 2L));
+
+        Roaring64Bitmap first = cache.getSeenPets("user1").orElseThrow();
+        cache.markSeen("user1", 3L);
+        Roaring64Bitmap second = cache.getSeenPets("user1").orElseThrow();
+
+        assertThat(first.contains(3L)).isFalse();
+        assertThat(second.contains(1L)).isTrue();
+        assertThat(second.contains(3L)).isTrue();
+        verify(favoritePetRepository, times(1)).findPetIdsByUsername("user1");
+    }
+
+    @Test
+    void getSeenPets_WhenMaxUsersExceeded_ShouldEvictLeastRecentlyUsed() {
+        SeenPetCache cache = new SeenPetCache(favoritePetRepository, true, 1);
+        when(favoritePetRepository.findPetIdsByUsername(anyString())).thenReturn(List.of(1L));
+
+        cache.getSeenPets("user1");
+        cache.getSeenPets("user2");
+        cache.getSeenPets("user1");
+
+        verify(favoritePetRepository, times(2)).findPetIdsByUsername("user1");
+    }
+}
@@ -0,0 +1,107 @@
+package org.petify.shelter.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.petify.shelter.cache.ShelterGrid.ShelterDistance;
+import org.petify.shelter.model.Shelter;
+import org.petify.shelter.repository.ShelterRepository;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShelterGridTest {
+
+    private static final double WARSAW_LAT = 52.2297;
+    private static final double WARSAW_LNG = 21.0122;
+
+    @Mock
+    private ShelterRepository shelterRepository;
+
+    @Test
+    void findInRing_ShouldReturnOnlySheltersInsideRingNearestFirst() {
+        ShelterGrid grid = gridOf(
+                new ShelterPoint(1L, 52.40, 16.93),   // Poznań, ~280 km
+                new ShelterPoint(2L, 52.25, 21.00),   // ~2.5 km
+                new ShelterPoint(3L, 52.23, 21.01),   // ~0.2 km
+                new ShelterPoint(4L, 52.30, 21.00));  // ~8 km
+
+        List<ShelterDistance> firstRing = grid.findInRing(WARSAW_LAT, WARSAW_LNG, 0, 10);
+        List<ShelterDistance> farRing = grid.findInRing(WARSAW_LAT, WARSAW_LNG, 270, 290);
+
+        assertThat(firstRing).extracting(ShelterDistance::shelterId).containsExactly(3L, 2L, 4L);
+        assertThat(firstRing).extracting(ShelterDistance::distanceKm).isSorted();
+        assertThat(farRing).extracting(ShelterDistance::shelterId).containsExactly(1L);
+    }
+
+    @Test
+    void findInRing_WhenLoadedThroughCells_ShouldMatchFullScan() {
+        ShelterPoint[] points = new ShelterPoint[200];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new ShelterPoint((long) i, 50.0 + (i % 20) * 0.2, 15.0 + (i / 20) * 0.6);
+        }
+        ShelterGrid grid = gridOf(points);
+
+        List<ShelterDistance> ring = grid.findInRing(WARSAW_LAT - 1, WARSAW_LNG - 2, 20, 30);
+
+        List<Long> expected = Arrays.stream(points)
+                .filter(point -> {
+                    double distance = ShelterGrid.distanceKm(WARSAW_LAT - 1, WARSAW_LNG - 2,
+                            point.latitude(), point.longitude());
+                    return distance >= 20 && distance < 30;
+                })
+                .map(ShelterPoint::shelterId)
+                .toList();
+        assertThat(ring).extracting(ShelterDistance::shelterId).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    void upsert_ShouldMoveDeactivatedAndRelocatedShelters() {
+        ShelterGrid grid = gridOf(new ShelterPoint(1L, 52.23, 21.01), new ShelterPoint(2L, 52.25, 21.00));
+
+        grid.upsert(shelter(1L, 54.35, 18.65, true));
+        grid.upsert(shelter(2L, 52.25, 21.00, false));
+
+        assertThat(grid.findInRing(WARSAW_LAT, WARSAW_LNG, 0, 10)).isEmpty();
+        assertThat(grid.findInRing(54.35, 18.65, 0, 10)).extracting(ShelterDistance::shelterId).containsExactly(1L);
+    }
+
+    @Test
+    void findInRing_BeforeFirstRebuild_ShouldQueryBoundingBoxWithoutLoadingGrid() {
+        when(shelterRepository.findActiveLocationsWithin(anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+                .thenReturn(List.of(
+                        new ShelterPoint(1L, 52.30, 21.00),    // ~8 km
+                        new ShelterPoint(2L, 52.23, 21.01),    // ~0.2 km
+                        new ShelterPoint(3L, 52.31, 21.14)));  // box corner, ~12.5 km
+        ShelterGrid grid = new ShelterGrid(shelterRepository, 10, 500);
+
+        List<ShelterDistance> ring = grid.findInRing(WARSAW_LAT, WARSAW_LNG, 0, 10);
+
+        assertThat(ring).extracting(ShelterDistance::shelterId).containsExactly(2L, 1L);
+        verify(shelterRepository).findActiveLocationsWithin(
+                doubleThat(minLat -> minLat < WARSAW_LAT - 0.08), doubleThat(maxLat -> maxLat > WARSAW_LAT + 0.08),
+                doubleThat(minLng -> minLng < WARSAW_LNG - 0.14), doubleThat(maxLng -> maxLng > WARSAW_LNG + 0.14));
+        verify(shelterRepository, never()).findActiveLocations();
+    }
+
+    private ShelterGrid gridOf(ShelterPoint... points) {
+        when(shelterRepository.findActiveLocations()).thenReturn(List.of(points));
+        ShelterGrid grid = new ShelterGrid(shelterRepository, 10, 500);
+        grid.rebuild();
+        return grid;
+    }
+
+    private Shelter shelter(Long id, double latitude, double longitude, boolean active) {
+        Shelter shelter = new Shelter();
+        shelter.setId(id);
+        shelter.setLatitude(latitude);
+        shelter.setLongitude(longitude);
+        shelter.setIsActive(active);
+        return shelter;
+    }
+}
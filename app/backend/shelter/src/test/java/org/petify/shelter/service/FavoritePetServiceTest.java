@@ -5,6 +5,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.petify.shelter.cache.SeenPetCache;
 import org.petify.shelter.enums.MatchType;
 import org.petify.shelter.exception.PetIsArchivedException;
 import org.petify.shelter.exception.PetNotFoundException;
@@ -14,11 +15,14 @@ import org.petify.shelter.model.Pet;
 import org.petify.shelter.model.Shelter;
 import org.petify.shelter.repository.FavoritePetRepository;
 import org.petify.shelter.repository.PetRepository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +34,12 @@ class FavoritePetServiceTest {
     @Mock
     private PetRepository petRepository;
 
+    @Mock
+    private SeenPetCache seenPetCache;
+
+    @Mock
+    private SwipeDeckService swipeDeckService;
+
     @InjectMocks
     private FavoritePetService favoritePetService;
 
@@ -49,6 +59,8 @@ class FavoritePetServiceTest {
 
         // Assert
         verify(favoritePetRepository).save(favoritePet);
+        verify(seenPetCache).markSeen(username, petId);
+        verify(swipeDeckService).pop(username, petId);
         assertThat(favoritePet.getStatus()).isEqualTo(MatchType.LIKE);
     }
 
@@ -71,6 +83,29 @@ class FavoritePetServiceTest {
         assertThat(favoritePet.getStatus()).isEqualTo(MatchType.DISLIKE);
     }
 
+    @Test
+    void dislike_WhenTransactionDoesNotCommit_ShouldNotMarkPetSeen() {
+        String username = "user1";
+        Long petId = 1L;
+
+        when(petRepository.findById(petId)).thenReturn(Optional.of(createActivePet(petId)));
+        when(favoritePetRepository.findByUsernameAndPetId(username, petId)).thenReturn(Optional.of(new FavoritePet()));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            favoritePetService.dislike(username, petId);
+
+            verify(seenPetCache, never()).markSeen(any(), any());
+            verify(swipeDeckService, never()).pop(any(), any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(seenPetCache).markSeen(username, petId);
+            verify(swipeDeckService).pop(username, petId);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     @Test
     void support_ShouldCreateOrUpdateFavoritePetWithSupportStatus() {
         // Arrange
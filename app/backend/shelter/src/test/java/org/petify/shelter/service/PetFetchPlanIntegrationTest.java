@@ -0,0 +1,156 @@
+package org.petify.shelter.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.petify.shelter.dto.PetResponseWithImages;
+import org.petify.shelter.dto.SwipeResponse;
+import org.petify.shelter.enums.MatchType;
+import org.petify.shelter.enums.PetSize;
+import org.petify.shelter.enums.PetType;
+import org.petify.shelter.integration.BaseIntegrationTest;
+import org.petify.shelter.model.FavoritePet;
+import org.petify.shelter.model.Pet;
+import org.petify.shelter.model.PetImage;
+import org.petify.shelter.model.Shelter;
+import org.petify.shelter.repository.FavoritePetRepository;
+import org.petify.shelter.repository.PetImageRepository;
+import org.petify.shelter.repository.PetRepository;
+import org.petify.shelter.repository.ShelterRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the SQL statements Hibernate prepares per listing page, which must not grow with the page size.
+ */
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "petify.swipe.candidate-index.enabled=false"
+})
+class PetFetchPlanIntegrationTest extends BaseIntegrationTest {
+
+    private static final int SHELTERS = 4;
+    private static final int PETS = 60;
+    private static final int IMAGES_PER_PET = 2;
+    private static final long MAX_QUERIES_PER_PAGE = 4;
+    private static final String USERNAME = "fetch-plan-user";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ShelterRepository shelterRepository;
+
+    @Autowired
+    private PetRepository petRepository;
+
+    @Autowired
+    private PetImageRepository petImageRepository;
+
+    @Autowired
+    private FavoritePetRepository favoritePetRepository;
+
+    @Autowired
+    private PetService petService;
+
+    @Autowired
+    private FavoritePetService favoritePetService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        if (petRepository.count() == 0) {
+            seedPets();
+        }
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 50})
+    void getPets_ShouldRunBoundedQueriesRegardlessOfPageSize(int pageSize) {
+        Page<PetResponseWithImages> page = petService.getPets(PageRequest.of(0, pageSize));
+
+        assertThat(page.getContent()).hasSize(pageSize)
+                .allSatisfy(pet -> assertThat(pet.images()).hasSize(IMAGES_PER_PET));
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_QUERIES_PER_PAGE);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 50})
+    void getFilteredPets_ShouldRunBoundedQueriesRegardlessOfPageSize(int pageSize) {
+        SwipeResponse response = petService.getFilteredPetsWithCursor(null, null, null, null, null, null, null,
+                null, null, null, null, 0L, pageSize, "someone-else");
+
+        assertThat(response.pets()).hasSize(pageSize)
+                .allSatisfy(pet -> assertThat(pet.images()).hasSize(IMAGES_PER_PET));
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_QUERIES_PER_PAGE);
+    }
+
+    @Test
+    void getAllPets_ShouldNotQueryPerPet() {
+        List<PetResponseWithImages> pets = petService.getAllPets();
+
+        assertThat(pets).hasSize(PETS);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_QUERIES_PER_PAGE);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 50})
+    void getFavoritePets_ShouldRunBoundedQueriesRegardlessOfFavoritesCount(int favorites) {
+        String username = USERNAME + "-" + favorites;
+        petRepository.findAll(PageRequest.of(0, favorites)).forEach(pet -> {
+            FavoritePet favorite = new FavoritePet();
+            favorite.setUsername(username);
+            favorite.setPet(pet);
+            favorite.setStatus(MatchType.LIKE);
+            favoritePetRepository.save(favorite);
+        });
+        statistics.clear();
+
+        List<PetResponseWithImages> pets = favoritePetService.getFavoritePets(username);
+
+        assertThat(pets).hasSize(favorites);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_QUERIES_PER_PAGE);
+    }
+
+    private void seedPets() {
+        for (int s = 0; s < SHELTERS; s++) {
+            Shelter shelter = new Shelter();
+            shelter.setOwnerUsername("fetch-plan-owner-" + s);
+            shelter.setName("Shelter " + s);
+            shelter.setIsActive(true);
+            shelter.setLatitude(52.2297);
+            shelter.setLongitude(21.0122);
+            shelterRepository.save(shelter);
+
+            for (int p = 0; p < PETS / SHELTERS; p++) {
+                Pet pet = new Pet();
+                pet.setName("Pet " + s + "-" + p);
+                pet.setType(PetType.DOG);
+                pet.setAge(p % 10);
+                pet.setSize(PetSize.MEDIUM);
+                pet.setShelter(shelter);
+                petRepository.save(pet);
+
+                for (int i = 0; i < IMAGES_PER_PET; i++) {
+                    petImageRepository.save(new PetImage(null, "image-" + i + ".jpg", pet));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.petify.shelter.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.petify.shelter.cache.ShelterGrid;
+import org.petify.shelter.dto.NearbyPetsResponse;
+import org.petify.shelter.dto.PetResponseWithImages;
+import org.petify.shelter.enums.PetSize;
+import org.petify.shelter.enums.PetType;
+import org.petify.shelter.integration.BaseIntegrationTest;
+import org.petify.shelter.model.Pet;
+import org.petify.shelter.model.Shelter;
+import org.petify.shelter.repository.PetRepository;
+import org.petify.shelter.repository.ShelterRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@TestPropertySource(properties = "petify.nearby.ring-km=5")
+class PetNearbyIntegrationTest extends BaseIntegrationTest {
+
+    private static final double USER_LAT = 52.2297;
+    private static final double USER_LNG = 21.0122;
+    private static final int PETS_PER_SHELTER = 3;
+
+    @Autowired
+    private PetService petService;
+
+    @Autowired
+    private ShelterRepository shelterRepository;
+
+    @Autowired
+    private PetRepository petRepository;
+
+    @Autowired
+    private ShelterGrid shelterGrid;
+
+    @BeforeEach
+    void setUp() {
+        if (shelterRepository.count() == 0) {
+            // roughly 0, 3, 8, 14, 25 and 280 km away, the inactive one right next to the user
+            seedShelter("near", 52.23, 21.01, true);
+            seedShelter("3km", 52.25, 20.98, true);
+            seedShelter("8km", 52.30, 21.00, true);
+            seedShelter("14km", 52.35, 20.95, true);
+            seedShelter("25km", 52.45, 21.05, true);
+            seedShelter("poznan", 52.40, 16.93, true);
+            seedShelter("inactive", 52.2297, 21.0122, false);
+            shelterGrid.rebuild();
+        }
+    }
+
+    @Test
+    void getNearbyPets_ShouldPageOutwardWithoutRepeats() {
+        List<PetResponseWithImages> pets = new ArrayList<>();
+
+        String cursor = null;
+        do {
+            NearbyPetsResponse page = petService.getNearbyPets(null, null, null, null, null, null, null,
+                    USER_LAT, USER_LNG, 100.0, cursor, 4);
+            assertThat(page.pets()).hasSizeLessThanOrEqualTo(4);
+            pets.addAll(page.pets());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(pets).hasSize(5 * PETS_PER_SHELTER);
+        assertThat(pets).extracting(PetResponseWithImages::id).doesNotHaveDuplicates();
+        assertThat(pets).extracting(PetResponseWithImages::distance).isSorted()
+                .allSatisfy(distance -> assertThat(distance).isLessThan(100.0));
+    }
+
+    @Test
+    void getNearbyPets_ShouldApplyFiltersAndRadius() {
+        NearbyPetsResponse page = petService.getNearbyPets(null, null, null, null, null, null, PetType.CAT,
+                USER_LAT, USER_LNG, 10.0, null, 50);
+
+        assertThat(page.pets()).hasSize(3)
+                .allSatisfy(pet -> assertThat(pet.type()).isEqualTo(PetType.CAT));
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    private void seedShelter(String name, double latitude, double longitude, boolean active) {
+        Shelter shelter = new Shelter();
+        shelter.setOwnerUsername("nearby-owner-" + name);
+        shelter.setName(name);
+        shelter.setIsActive(active);
+        shelter.setLatitude(latitude);
+        shelter.setLongitude(longitude);
+        shelterRepository.save(shelter);
+
+        for (int i = 0; i < PETS_PER_SHELTER; i++) {
+            Pet pet = new Pet();
+            pet.setName(name + " " + i);
+            pet.setType(i == 0 ? PetType.CAT : PetType.DOG);
+            pet.setAge(i);
+            pet.setSize(PetSize.SMALL);
+            pet.setShelter(shelter);
+            petRepository.save(pet);
+        }
+    }
+}
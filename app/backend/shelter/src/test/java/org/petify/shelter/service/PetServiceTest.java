@@ -6,6 +6,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.petify.shelter.cache.PetCandidateIndex;
+import org.petify.shelter.cache.PetSummaryCache;
+import org.petify.shelter.cache.SeenPetCache;
+import org.petify.shelter.cache.ShelterGrid;
+import org.petify.shelter.cache.SwipeFilter;
 import org.petify.shelter.dto.*;
 import org.petify.shelter.enums.*;
 import org.petify.shelter.exception.PetNotFoundException;
@@ -16,6 +21,8 @@ import org.petify.shelter.model.Shelter;
 import org.petify.shelter.repository.FavoritePetRepository;
 import org.petify.shelter.repository.PetRepository;
 import org.petify.shelter.repository.ShelterRepository;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -27,10 +34,13 @@ import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,6 +55,18 @@ class PetServiceTest {
     @Mock
     private FavoritePetRepository favoritePetRepository;
 
+    @Mock
+    private SeenPetCache seenPetCache;
+
+    @Mock
+    private PetCandidateIndex candidateIndex;
+
+    @Mock
+    private PetSummaryCache petSummaryCache;
+
+    @Mock
+    private ShelterGrid shelterGrid;
+
     @Mock
     private PetMapper petMapper;
 
@@ -62,7 +84,7 @@ class PetServiceTest {
 
     @BeforeEach
     void setUp() {
-        reset(petRepository, shelterRepository, favoritePetRepository,
+        reset(petRepository, favoritePetRepository, shelterRepository, seenPetCache, candidateIndex, petSummaryCache,
                 petMapper, storageService, multipartFile);
     }
 
@@ -70,12 +92,9 @@ class PetServiceTest {
     void getOwnerUsernameByPetId_WhenPetExists_ShouldReturnUsername() {
         Long petId = 1L;
         String expectedUsername = "owner1";
-        Pet pet = new Pet();
-        Shelter shelter = new Shelter();
-        shelter.setOwnerUsername(expectedUsername);
-        pet.setShelter(shelter);
 
-        when(petRepository.findById(petId)).thenReturn(Optional.of(pet));
+        when(petSummaryCache.getPetSummary(petId))
+                .thenReturn(new PetSummary(petId, 2L, expectedUsername, false, true));
 
         String result = petService.getOwnerUsernameByPetId(petId);
 
@@ -85,7 +104,7 @@ class PetServiceTest {
     @Test
     void getOwnerUsernameByPetId_WhenPetNotExists_ShouldThrowException() {
         Long petId = 1L;
-        when(petRepository.findById(petId)).thenReturn(Optional.empty());
+        when(petSummaryCache.getPetSummary(petId)).thenThrow(new PetNotFoundException(petId));
 
         assertThatThrownBy(() -> petService.getOwnerUsernameByPetId(petId))
                 .isInstanceOf(PetNotFoundException.class)
@@ -115,14 +134,131 @@ class PetServiceTest {
 
     @Test
     void getFilteredPets_WhenNoPetsMatchCriteria_ShouldReturnEmptyList() {
-        when(favoritePetRepository.findByUsername(anyString())).thenReturn(Collections.emptyList());
-        when(petRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(new PageImpl<>(Collections.emptyList()));
+        when(petRepository.findBy(any(Specification.class), any())).thenReturn(Collections.emptyList());
 
         var result = petService.getFilteredPetsWithCursor(
                 true, false, true, true,
-                1, 5, PetType.DOG, 50.0, 20.0, 10.0, 0L,10,"user1");
+                1, 5, PetType.DOG, 50.0, 20.0, 10.0, 0L, null, 10, "user1");
+
+        assertThat(result.pets()).isEmpty();
+        assertThat(result.nextCursor()).isNull();
+    }
+
+    @Test
+    void getFilteredPets_WhenPageIsFull_ShouldReturnShuffleKeyCursorAndSeed() {
+        Pet pet1 = createTestPet(1L, "Pet1", PetType.DOG);
+        pet1.setShuffleKey(700L);
+        Pet pet2 = createTestPet(2L, "Pet2", PetType.CAT);
+        pet2.setShuffleKey(900L);
+
+        when(petRepository.findBy(any(Specification.class), any())).thenReturn(List.of(pet1, pet2));
+        when(petMapper.toDtoWithImagesAndDistance(any(Pet.class), any()))
+                .thenReturn(createPetResponseWithImages(1L, "Pet", PetType.DOG));
+
+        var result = petService.getFilteredPetsWithCursor(
+                null, null, null, null,
+                null, null, null, null, null, null, null, 500L, 2, "user1");
+
+        assertThat(result.pets()).hasSize(2);
+        assertThat(result.nextCursor()).isEqualTo(900L);
+        assertThat(result.seed()).isEqualTo(500L);
+        verify(petRepository, times(1)).findBy(any(Specification.class), any());
+    }
+
+    @Test
+    void getFilteredPets_WhenSeenPetsFillEveryWindow_ShouldNotWrapPastSeed() {
+        Roaring64Bitmap seenPets = new Roaring64Bitmap();
+        seenPets.addRange(1L, 1000L);
+        when(seenPetCache.getSeenPets("user1")).thenReturn(Optional.of(seenPets));
+
+        long[] nextKey = {500L};
+        when(petRepository.findBy(any(Specification.class), any())).thenAnswer(invocation -> {
+            Pet pet1 = createTestPet(nextKey[0], "Seen", PetType.DOG);
+            pet1.setShuffleKey(++nextKey[0]);
+            Pet pet2 = createTestPet(nextKey[0], "Seen", PetType.DOG);
+            pet2.setShuffleKey(++nextKey[0]);
+            return List.of(pet1, pet2);
+        });
+
+        var result = petService.getFilteredPetsWithCursor(
+                null, null, null, null,
+                null, null, null, null, null, null, null, 500L, 2, "user1");
+
+        // every window is full of seen pets, so the page stops inside [seed, end) and keeps its cursor there
+        assertThat(result.pets()).isEmpty();
+        assertThat(result.nextCursor()).isEqualTo(520L);
+        verify(petRepository, times(10)).findBy(any(Specification.class), any());
+    }
+
+    @Test
+    void getFilteredPets_WhenCandidateIndexIsReady_ShouldLoadOnlyPickedPets() {
+        Shelter activeShelter = new Shelter();
+        activeShelter.setIsActive(true);
+        Pet pet1 = createTestPet(1L, "Pet1", PetType.DOG);
+        pet1.setShelter(activeShelter);
+        Pet pet2 = createTestPet(2L, "Pet2", PetType.CAT);
+        pet2.setShelter(activeShelter);
+        pet2.setArchived(true);
+        PetResponseWithImages response1 = createPetResponseWithImages(1L, "Pet1", PetType.DOG);
+
+        when(candidateIndex.isReady()).thenReturn(true);
+        when(seenPetCache.getSeenPets("user1")).thenReturn(Optional.of(new Roaring64Bitmap()));
+        when(candidateIndex.findPage(any(SwipeFilter.class), isNull(), eq(500L), eq(2), any(Roaring64Bitmap.class)))
+                .thenReturn(new PetCandidateIndex.CandidatePage(List.of(2L, 1L), 700L));
+        when(petRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(pet1, pet2));
+        when(petMapper.toDtoWithImagesAndDistance(pet1, null)).thenReturn(response1);
+
+        var result = petService.getFilteredPetsWithCursor(
+                null, null, null, null,
+                null, null, null, null, null, null, null, 500L, 2, "user1");
+
+        assertThat(result.pets()).containsExactly(response1);
+        assertThat(result.nextCursor()).isEqualTo(700L);
+        verify(petRepository, never()).findBy(any(Specification.class), any());
+    }
+
+    @Test
+    void getFilteredPets_WhenIndexReadyWithoutSeenCache_ShouldCheckOnlyPickedPetsAgainstSwipes() {
+        Shelter activeShelter = new Shelter();
+        activeShelter.setIsActive(true);
+        List<Pet> pets = List.of(createTestPet(1L, "Pet1", PetType.DOG), createTestPet(3L, "Pet3", PetType.DOG),
+                createTestPet(4L, "Pet4", PetType.DOG));
+        pets.forEach(pet -> pet.setShelter(activeShelter));
+
+        when(candidateIndex.isReady()).thenReturn(true);
+        when(candidateIndex.findPage(any(SwipeFilter.class), isNull(), eq(500L), eq(3), isNull()))
+                .thenReturn(new PetCandidateIndex.CandidatePage(List.of(1L, 2L, 3L), 900L));
+        when(candidateIndex.findPage(any(SwipeFilter.class), eq(900L), eq(500L), eq(1), isNull()))
+                .thenReturn(new PetCandidateIndex.CandidatePage(List.of(4L), 950L));
+        when(favoritePetRepository.findPetIdsByUsernameAndPetIdIn("user1", List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(2L));
+        when(favoritePetRepository.findPetIdsByUsernameAndPetIdIn("user1", List.of(4L))).thenReturn(List.of());
+        when(petRepository.findAllById(List.of(1L, 3L, 4L))).thenReturn(pets);
+        when(petMapper.toDtoWithImagesAndDistance(any(Pet.class), isNull()))
+                .thenReturn(createPetResponseWithImages(1L, "Pet", PetType.DOG));
+
+        var result = petService.getFilteredPetsWithCursor(
+                null, null, null, null,
+                null, null, null, null, null, null, null, 500L, 3, "user1");
+
+        assertThat(result.pets()).hasSize(3);
+        assertThat(result.nextCursor()).isEqualTo(950L);
+        verify(favoritePetRepository, never()).findPetIdsByUsername(any());
+    }
+
+    @Test
+    void getFilteredPets_WhenIndexReadyWithoutSeenCacheRunsOut_ShouldReturnNoCursor() {
+        when(candidateIndex.isReady()).thenReturn(true);
+        when(candidateIndex.findPage(any(SwipeFilter.class), eq(950L), eq(500L), eq(3), isNull()))
+                .thenReturn(new PetCandidateIndex.CandidatePage(List.of(), null));
+
+        var result = petService.getFilteredPetsWithCursor(
+                null, null, null, null,
+                null, null, null, null, null, null, 950L, 500L, 3, "user1");
 
         assertThat(result.pets()).isEmpty();
+        assertThat(result.nextCursor()).isNull();
+        verify(favoritePetRepository, never()).findPetIdsByUsernameAndPetIdIn(any(), any());
     }
 
     @Test
@@ -156,11 +292,7 @@ class PetServiceTest {
     @Test
     void getAllPetIds_ShouldReturnListOfIds() {
         // Arrange
-        Pet pet1 = createTestPet(1L, "Pet1", PetType.DOG);
-        Pet pet2 = createTestPet(2L, "Pet2", PetType.CAT);
-        List<Pet> pets = List.of(pet1, pet2);
-
-        when(petRepository.findAll()).thenReturn(pets);
+        when(petRepository.findAllIds()).thenReturn(List.of(1L, 2L));
 
         // Act
         List<Long> result = petService.getAllPetIds();
@@ -169,6 +301,42 @@ class PetServiceTest {
         assertThat(result)
                 .hasSize(2)
                 .containsExactly(1L, 2L);
+        verify(petRepository, never()).findAll();
+    }
+
+    @Test
+    void getPetIdsAfter_WhenPageIsFull_ShouldReturnLastIdAsCursor() {
+        when(petRepository.findIdsAfter(eq(10L), any(Limit.class))).thenReturn(List.of(11L, 12L));
+
+        PetIdPageResponse result = petService.getPetIdsAfter(10L, 2);
+
+        assertThat(result.ids()).containsExactly(11L, 12L);
+        assertThat(result.nextCursor()).isEqualTo(12L);
+    }
+
+    @Test
+    void getPetIdsAfter_WhenLastPage_ShouldReturnNullCursor() {
+        when(petRepository.findIdsAfter(eq(0L), any(Limit.class))).thenReturn(List.of(1L));
+
+        PetIdPageResponse result = petService.getPetIdsAfter(null, 2);
+
+        assertThat(result.ids()).containsExactly(1L);
+        assertThat(result.nextCursor()).isNull();
+    }
+
+    @Test
+    void getPetStatuses_ShouldAnswerAllIdsWithOneQuery() {
+        Set<Long> ids = Set.of(1L, 2L, 3L);
+        List<PetSummary> statuses = List.of(
+                new PetSummary(1L, 10L, "owner1", false, true),
+                new PetSummary(2L, 10L, "owner1", true, true));
+        when(petRepository.findSummariesByIdIn(ids)).thenReturn(statuses);
+
+        List<PetSummary> result = petService.getPetStatuses(ids);
+
+        assertThat(result).isEqualTo(statuses);
+        verify(petRepository).findSummariesByIdIn(ids);
+        verifyNoInteractions(petSummaryCache);
     }
 
     @Test
@@ -0,0 +1,82 @@
+package org.petify.shelter.service;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.petify.shelter.dto.PetIdPageResponse;
+import org.petify.shelter.integration.BaseIntegrationTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class PetStreamingIntegrationTest extends BaseIntegrationTest {
+
+    private static final int PETS = 450;
+
+    @Autowired
+    private PetService petService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        Integer pets = jdbcTemplate.queryForObject("SELECT count(*) FROM pets", Integer.class);
+        if (pets == null || pets == 0) {
+            seedPets();
+        }
+    }
+
+    @Test
+    void streamAllPets_ShouldVisitEveryPetInIdOrderWithBoundedPersistenceContext() {
+        List<Long> streamed = new ArrayList<>();
+        AtomicInteger maxManagedEntities = new AtomicInteger();
+
+        petService.streamAllPets(pet -> {
+            streamed.add(pet.id());
+            int managed = entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+            maxManagedEntities.accumulateAndGet(managed, Math::max);
+        });
+
+        assertThat(streamed).hasSize(PETS).isSorted();
+        // one chunk of pets with their images and shelter, never the whole table
+        assertThat(maxManagedEntities.get()).isLessThan(PETS);
+    }
+
+    @Test
+    void getPetIdsAfter_ShouldWalkAllIdsInPages() {
+        List<Long> ids = new ArrayList<>();
+
+        Long cursor = null;
+        do {
+            PetIdPageResponse page = petService.getPetIdsAfter(cursor, 100);
+            ids.addAll(page.ids());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(ids).hasSize(PETS).isSorted().doesNotHaveDuplicates();
+        assertThat(ids).containsExactlyElementsOf(petService.getAllPetIds());
+    }
+
+    private void seedPets() {
+        jdbcTemplate.update("INSERT INTO shelters (owner_username, name, is_active) VALUES ('stream-owner', 'S', true)");
+        jdbcTemplate.update("INSERT INTO pets (name, type, age, is_vaccinated, is_urgent, is_sterilized, "
+                + "is_kid_friendly, is_archived, size, shelter_id, shuffle_key) "
+                + "SELECT 'Pet ' || g, 'DOG', 1, false, false, false, false, false, 'SMALL', "
+                + "(SELECT id FROM shelters WHERE owner_username = 'stream-owner'), g "
+                + "FROM generate_series(1, ?) g", PETS);
+        jdbcTemplate.update("INSERT INTO pet_images (image_name, pet_id) "
+                + "SELECT 'image.jpg', id FROM pets CROSS JOIN generate_series(1, 2)");
+    }
+}
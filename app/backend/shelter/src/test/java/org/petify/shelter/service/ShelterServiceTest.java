@@ -6,6 +6,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.petify.shelter.cache.PetCandidateIndex;
+import org.petify.shelter.cache.PetSummaryCache;
+import org.petify.shelter.cache.ShelterGrid;
 import org.petify.shelter.dto.ShelterRequest;
 import org.petify.shelter.dto.ShelterResponse;
 import org.petify.shelter.exception.ShelterAlreadyExistsException;
@@ -42,6 +45,15 @@ class ShelterServiceTest {
     @Mock
     private StorageService storageService;
 
+    @Mock
+    private PetCandidateIndex candidateIndex;
+
+    @Mock
+    private PetSummaryCache petSummaryCache;
+
+    @Mock
+    private ShelterGrid shelterGrid;
+
     @Mock
     private MultipartFile multipartFile;
 
@@ -0,0 +1,104 @@
+package org.petify.shelter.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.petify.shelter.cache.SwipeFilter;
+import org.petify.shelter.dto.PetResponseWithImages;
+import org.petify.shelter.dto.SwipeResponse;
+import org.petify.shelter.enums.PetType;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SwipeDeckServiceTest {
+
+    private static final String USERNAME = "user1";
+    private static final SwipeFilter NO_FILTER =
+            new SwipeFilter(null, null, null, null, null, null, null, null, null, null);
+
+    @Mock
+    private PetService petService;
+
+    @Test
+    void peek_ShouldFillDeckOnceAndServeFollowingReadsFromMemory() {
+        SwipeDeckService deckService = deckService(true);
+        stubPage(null, 5, 1L, 105L);
+
+        List<PetResponseWithImages> first = deckService.peek(USERNAME, NO_FILTER, 2);
+        List<PetResponseWithImages> second = deckService.peek(USERNAME, NO_FILTER, 2);
+
+        assertThat(first).extracting(PetResponseWithImages::id).containsExactly(1L, 2L);
+        assertThat(second).isEqualTo(first);
+        verify(petService, times(1)).getFilteredPetsWithCursor(any(), any(), any(), any(), any(), any(), any(),
+                any(), any(), any(), any(), anyLong(), anyInt(), eq(USERNAME));
+    }
+
+    @Test
+    void pop_WhenDeckRunsLow_ShouldRefillFromLastCursor() {
+        SwipeDeckService deckService = deckService(true);
+        stubPage(null, 5, 1L, 105L);
+        stubPage(105L, 3, 6L, 108L);
+        deckService.peek(USERNAME, NO_FILTER, 1);
+
+        deckService.pop(USERNAME, 1L);
+        deckService.pop(USERNAME, 2L);
+        deckService.pop(USERNAME, 3L);
+
+        assertThat(deckService.peek(USERNAME, NO_FILTER, 10)).extracting(PetResponseWithImages::id)
+                .containsExactly(4L, 5L, 6L, 7L, 8L);
+    }
+
+    @Test
+    void peek_WhenFiltersChange_ShouldStartNewDeck() {
+        SwipeDeckService deckService = deckService(true);
+        SwipeFilter cats = new SwipeFilter(null, null, null, null, null, null, PetType.CAT, null, null, null);
+        stubPage(null, 5, 1L, 105L);
+        deckService.peek(USERNAME, NO_FILTER, 1);
+
+        deckService.peek(USERNAME, cats, 1);
+
+        verify(petService).getFilteredPetsWithCursor(any(), any(), any(), any(), any(), any(), eq(PetType.CAT),
+                any(), any(), any(), isNull(), anyLong(), anyInt(), eq(USERNAME));
+    }
+
+    @Test
+    void peek_WhenDisabled_ShouldQueryEveryTime() {
+        SwipeDeckService deckService = deckService(false);
+        stubPage(null, 2, 1L, 102L);
+
+        deckService.peek(USERNAME, NO_FILTER, 2);
+        deckService.peek(USERNAME, NO_FILTER, 2);
+        deckService.pop(USERNAME, 1L);
+
+        verify(petService, times(2)).getFilteredPetsWithCursor(any(), any(), any(), any(), any(), any(), any(),
+                any(), any(), any(), any(), any(), anyInt(), eq(USERNAME));
+    }
+
+    private SwipeDeckService deckService(boolean enabled) {
+        // refills run on the calling thread
+        return new SwipeDeckService(petService, Runnable::run, enabled, 5, 3, 600, 100);
+    }
+
+    private void stubPage(Long cursor, int size, long firstId, Long nextCursor) {
+        List<PetResponseWithImages> pets = LongStream.range(firstId, firstId + size).mapToObj(this::pet).toList();
+        lenient().when(petService.getFilteredPetsWithCursor(any(), any(), any(), any(), any(), any(), any(),
+                        any(), any(), any(), cursor == null ? isNull() : eq(cursor), any(), anyInt(), eq(USERNAME)))
+                .thenReturn(new SwipeResponse(pets, nextCursor, 0L));
+    }
+
+    private PetResponseWithImages pet(long id) {
+        return new PetResponseWithImages(id, "Pet " + id, PetType.DOG, null, 1, false, null, 1L, null, null,
+                false, false, false, false, null, List.of(), null);
+    }
+}
@@ -0,0 +1,120 @@
+package org.petify.shelter.specification;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.petify.shelter.enums.PetSize;
+import org.petify.shelter.enums.PetType;
+import org.petify.shelter.integration.BaseIntegrationTest;
+import org.petify.shelter.model.Pet;
+import org.petify.shelter.model.Shelter;
+import org.petify.shelter.repository.PetRepository;
+import org.petify.shelter.repository.ShelterRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the SQL radius filter against the haversine distance the feed used to filter on in Java, with pets
+ * placed just inside and just outside the circle in every direction.
+ */
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class PetSpecificationRadiusIntegrationTest extends BaseIntegrationTest {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final int BEARINGS = 24;
+
+    @Autowired
+    private PetRepository petRepository;
+
+    @Autowired
+    private ShelterRepository shelterRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<String, double[]> locations = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE pets, shelters CASCADE");
+        locations.clear();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource({
+            "warsaw, 52.2297, 21.0122, 10",
+            "high latitude, 75.0, 25.0, 800",
+            "antimeridian east, -17.7, 179.9, 50",
+            "antimeridian west, 65.0, -179.95, 120",
+            "north pole, 89.9, 0.0, 50",
+            "south pole, -89.5, 140.0, 100",
+            "equator, 0.0, 0.0, 300"
+    })
+    void withinRadius_ShouldMatchHaversineJustInsideAndOutside(String place, double lat, double lng, double radiusKm) {
+        for (int i = 0; i < BEARINGS; i++) {
+            double bearing = 360.0 * i / BEARINGS;
+            seedPet(place + " in " + i, destination(lat, lng, bearing, radiusKm * 0.99));
+            seedPet(place + " out " + i, destination(lat, lng, bearing, radiusKm * 1.01));
+        }
+
+        List<String> expected = locations.entrySet().stream()
+                .filter(location -> haversine(lat, lng, location.getValue()[0], location.getValue()[1]) <= radiusKm)
+                .map(Map.Entry::getKey)
+                .toList();
+        List<String> matched = petRepository.findAll(PetSpecification.withinRadius(lat, lng, radiusKm)).stream()
+                .map(Pet::getName)
+                .toList();
+
+        assertThat(expected).hasSize(BEARINGS).allSatisfy(name -> assertThat(name).contains(" in "));
+        assertThat(matched).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    private void seedPet(String name, double[] location) {
+        Shelter shelter = new Shelter();
+        shelter.setOwnerUsername("radius-owner-" + name);
+        shelter.setName(name);
+        shelter.setIsActive(true);
+        shelter.setLatitude(location[0]);
+        shelter.setLongitude(location[1]);
+        shelterRepository.save(shelter);
+
+        Pet pet = new Pet();
+        pet.setName(name);
+        pet.setType(PetType.DOG);
+        pet.setAge(1);
+        pet.setSize(PetSize.SMALL);
+        pet.setShelter(shelter);
+        petRepository.save(pet);
+        locations.put(name, location);
+    }
+
+    // end of a great-circle path of distanceKm, longitude normalised to [-180, 180)
+    private static double[] destination(double lat, double lng, double bearingDegrees, double distanceKm) {
+        double angle = distanceKm / EARTH_RADIUS_KM;
+        double lat1 = Math.toRadians(lat);
+        double bearing = Math.toRadians(bearingDegrees);
+
+        double lat2 = Math.asin(Math.sin(lat1) * Math.cos(angle)
+                + Math.cos(lat1) * Math.sin(angle) * Math.cos(bearing));
+        double lng2 = Math.toRadians(lng) + Math.atan2(Math.sin(bearing) * Math.sin(angle) * Math.cos(lat1),
+                Math.cos(angle) - Math.sin(lat1) * Math.sin(lat2));
+
+        return new double[] {Math.toDegrees(lat2), (Math.toDegrees(lng2) + 540.0) % 360.0 - 180.0};
+    }
+
+    private static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double lat = Math.toRadians(lat2 - lat1);
+        double lon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(lat / 2) * Math.sin(lat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(lon / 2) * Math.sin(lon / 2);
+        return EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}